@@ -0,0 +1,59 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import retrofit2.CallAdapter;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+
+/**
+ * Measures {@link SynchronousCallAdapterFactory#get} for the return types Retrofit resolves when a
+ * service method is first invoked.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CallAdapterFactoryBenchmark {
+  interface Service {
+    @GET("/") String body();
+
+    @GET("/") Response<String> response();
+  }
+
+  private final CallAdapter.Factory factory = SynchronousCallAdapterFactory.create();
+  private Retrofit retrofit;
+  private Type bodyType;
+  private Annotation[] bodyAnnotations;
+  private Type responseType;
+  private Annotation[] responseAnnotations;
+
+  @Setup public void setUp() throws NoSuchMethodException {
+    retrofit = new Retrofit.Builder()
+      .baseUrl("http://localhost/")
+      .addCallAdapterFactory(factory)
+      .build();
+
+    Method body = Service.class.getDeclaredMethod("body");
+    bodyType = body.getGenericReturnType();
+    bodyAnnotations = body.getAnnotations();
+
+    Method response = Service.class.getDeclaredMethod("response");
+    responseType = response.getGenericReturnType();
+    responseAnnotations = response.getAnnotations();
+  }
+
+  @Benchmark public Object getBody() {
+    return factory.get(bodyType, bodyAnnotations, retrofit);
+  }
+
+  @Benchmark public Object getResponse() {
+    return factory.get(responseType, responseAnnotations, retrofit);
+  }
+}
@@ -0,0 +1,168 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.net.ServerSocketFactory;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import retrofit2.Converter;
+import retrofit2.HttpException;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+
+/**
+ * Measures whole service calls through {@link SynchronousCallAdapterFactory} against a local
+ * {@link MockWebServer}, including Retrofit, OkHttp and a trivial converter.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MockWebServerBenchmark {
+  interface Service {
+    @GET("/success") String body();
+
+    @GET("/success") Response<String> response();
+
+    @GET("/error") String bodyError();
+
+    @GET("/error") Response<String> responseError();
+
+    @GET("/disconnect") String bodyDisconnect();
+  }
+
+  private MockWebServer server;
+  private OkHttpClient client;
+  private Service service;
+
+  @Setup public void setUp() throws IOException {
+    server = new MockWebServer();
+    server.setServerSocketFactory(new NoDelayServerSocketFactory());
+    server.setDispatcher(new Dispatcher() {
+      @Override public MockResponse dispatch(RecordedRequest request) {
+        String path = request.getPath();
+        if ("/error".equals(path)) {
+          return new MockResponse().setResponseCode(500).setBody("Broken!");
+        }
+        if ("/disconnect".equals(path)) {
+          return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START);
+        }
+        return new MockResponse().setBody("Hi");
+      }
+    });
+    server.start();
+
+    client = new OkHttpClient.Builder().retryOnConnectionFailure(false).build();
+    service = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .client(client)
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create())
+      .build()
+      .create(Service.class);
+  }
+
+  @TearDown public void tearDown() throws IOException {
+    client.dispatcher().executorService().shutdown();
+    client.connectionPool().evictAll();
+    server.shutdown();
+  }
+
+  @Benchmark public Object bodySuccess() {
+    return service.body();
+  }
+
+  @Benchmark public Object responseSuccess() {
+    return service.response();
+  }
+
+  @Benchmark public Object bodyHttpError() {
+    try {
+      return service.bodyError();
+    } catch (HttpException e) {
+      return e;
+    }
+  }
+
+  @Benchmark public Object responseHttpError() {
+    return service.responseError();
+  }
+
+  @Benchmark public Object bodyIOException() {
+    try {
+      return service.bodyDisconnect();
+    } catch (RuntimeException e) {
+      return e;
+    }
+  }
+
+  /**
+   * MockWebServer writes the headers and the body separately, so without TCP_NODELAY every call
+   * waits on Nagle's algorithm and a delayed ACK and the benchmark only measures that stall.
+   */
+  static final class NoDelayServerSocketFactory extends ServerSocketFactory {
+    @Override public ServerSocket createServerSocket() throws IOException {
+      return new ServerSocket() {
+        @Override public Socket accept() throws IOException {
+          Socket socket = super.accept();
+          socket.setTcpNoDelay(true);
+          return socket;
+        }
+      };
+    }
+
+    @Override public ServerSocket createServerSocket(int port) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override public ServerSocket createServerSocket(int port, int backlog) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override public ServerSocket createServerSocket(int port, int backlog,
+      InetAddress ifAddress) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  static final class StringConverterFactory extends Converter.Factory {
+    @Nullable @Override public Converter<ResponseBody, ?> responseBodyConverter(Type type,
+      Annotation[] annotations, Retrofit retrofit) {
+      if (String.class.equals(type)) {
+        return (Converter<ResponseBody, String>) ResponseBody::string;
+      }
+      return null;
+    }
+
+    @Nullable @Override public Converter<?, RequestBody> requestBodyConverter(Type type,
+      Annotation[] parameterAnnotations, Annotation[] methodAnnotations, Retrofit retrofit) {
+      if (String.class.equals(type)) {
+        return (Converter<String, RequestBody>) StringConverterFactory::create;
+      }
+      return null;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static RequestBody create(String value) {
+      return RequestBody.create(MediaType.get("text/plain"), value);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+/**
+ * Measures {@link SynchronousBodyCallAdapter#adapt} and
+ * {@link SynchronousResponseCallAdapter#adapt} against a {@link StubCall}, isolating the cost of
+ * the adapters from the network and converters.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StubCallBenchmark {
+  private SynchronousBodyCallAdapter<String> bodyAdapter;
+  private SynchronousBodyCallAdapter<String> absentBodyAdapter;
+  private SynchronousResponseCallAdapter<String> responseAdapter;
+  private StubCall<String> successCall;
+  private StubCall<String> errorCall;
+  private StubCall<String> ioExceptionCall;
+
+  @Setup public void setUp() {
+    bodyAdapter = new SynchronousBodyCallAdapter<>(String.class, CallExecutor.DIRECT, null, null,
+      null, null, null, false, Exceptions.DEFAULT);
+    absentBodyAdapter = new SynchronousBodyCallAdapter<>(String.class, CallExecutor.DIRECT, null,
+      null, null, null, new int[] {500}, false, Exceptions.DEFAULT);
+    responseAdapter = new SynchronousResponseCallAdapter<>(String.class, CallExecutor.DIRECT,
+      Exceptions.DEFAULT);
+
+    successCall = StubCall.success(Response.success("Hi"));
+    errorCall = StubCall.success(Response.error(500, errorBody()));
+    ioExceptionCall = StubCall.failure(new IOException("broken"));
+  }
+
+  @Benchmark public Object bodySuccess() {
+    return bodyAdapter.adapt(successCall);
+  }
+
+  @Benchmark public Object bodyHttpError() {
+    try {
+      return bodyAdapter.adapt(errorCall);
+    } catch (HttpException e) {
+      return e;
+    }
+  }
+
+  @Benchmark public Object bodyHttpErrorAsNull() {
+    return absentBodyAdapter.adapt(errorCall);
+  }
+
+  @Benchmark public Object bodyIOException() {
+    try {
+      return bodyAdapter.adapt(ioExceptionCall);
+    } catch (RuntimeException e) {
+      return e;
+    }
+  }
+
+  @Benchmark public Object responseSuccess() {
+    return responseAdapter.adapt(successCall);
+  }
+
+  @Benchmark public Object responseHttpError() {
+    return responseAdapter.adapt(errorCall);
+  }
+
+  @Benchmark public Object responseIOException() {
+    try {
+      return responseAdapter.adapt(ioExceptionCall);
+    } catch (RuntimeException e) {
+      return e;
+    }
+  }
+
+  @SuppressWarnings("deprecation")
+  private static ResponseBody errorBody() {
+    return ResponseBody.create(MediaType.get("text/plain"), "Broken!");
+  }
+}
@@ -0,0 +1,377 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+
+/**
+ * Drives a service built with {@link SynchronousCallAdapterFactory} against a local
+ * {@link MockWebServer}, with a fixed pool of platform threads and with virtual threads, and
+ * writes throughput, latency percentiles and GC activity of every scenario to a JSON report.
+ * <p>
+ * Each scenario runs {@code concurrency} workers that call the service in a loop, for a warmup and
+ * then a measured duration. Scenarios are configured with system properties, which the
+ * {@code loadTest} Gradle task sets from {@code -PloadTestXxx} properties:
+ * <ul>
+ *   <li>{@code loadTest.threads}: comma-separated {@code platform} and {@code virtual}
+ *   <li>{@code loadTest.concurrency}: comma-separated numbers of concurrent workers
+ *   <li>{@code loadTest.warmupSeconds} and {@code loadTest.durationSeconds}
+ *   <li>{@code loadTest.payloadBytes}: size of successful response bodies
+ *   <li>{@code loadTest.latencyMillis}: latency injected before every response
+ *   <li>{@code loadTest.errorRate}: fraction of calls answered with a 500
+ *   <li>{@code loadTest.report}: path of the JSON report
+ * </ul>
+ */
+public final class LoadTest {
+  interface Service {
+    @GET("/payload") ResponseBody payload();
+  }
+
+  private final List<String> threads;
+  private final int[] concurrency;
+  private final int warmupSeconds;
+  private final int durationSeconds;
+  private final int payloadBytes;
+  private final int latencyMillis;
+  private final double errorRate;
+
+  private LoadTest(List<String> threads, int[] concurrency, int warmupSeconds,
+    int durationSeconds, int payloadBytes, int latencyMillis, double errorRate) {
+    for (String mode : threads) {
+      if (!mode.equals("platform") && !mode.equals("virtual")) {
+        throw new IllegalArgumentException("Unknown threads: " + mode);
+      }
+    }
+    if (errorRate < 0.0 || errorRate > 1.0) {
+      throw new IllegalArgumentException("errorRate must be between 0.0 and 1.0: " + errorRate);
+    }
+    this.threads = threads;
+    this.concurrency = concurrency;
+    this.warmupSeconds = warmupSeconds;
+    this.durationSeconds = durationSeconds;
+    this.payloadBytes = payloadBytes;
+    this.latencyMillis = latencyMillis;
+    this.errorRate = errorRate;
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoadTest loadTest = new LoadTest(
+      Arrays.asList(System.getProperty("loadTest.threads", "platform,virtual").split(",")),
+      Arrays.stream(System.getProperty("loadTest.concurrency", "64,512,2048").split(","))
+        .mapToInt(value -> Integer.parseInt(value.trim()))
+        .toArray(),
+      Integer.getInteger("loadTest.warmupSeconds", 3),
+      Integer.getInteger("loadTest.durationSeconds", 10),
+      Integer.getInteger("loadTest.payloadBytes", 1024),
+      Integer.getInteger("loadTest.latencyMillis", 10),
+      Double.parseDouble(System.getProperty("loadTest.errorRate", "0.01")));
+    Path report = Paths.get(System.getProperty("loadTest.report", "loadtest-report.json"));
+
+    List<Result> results = loadTest.run();
+    Path parent = report.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    try (Writer writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+      writer.write(loadTest.report(results));
+    }
+    System.out.println("Report written to " + report.toAbsolutePath());
+  }
+
+  private List<Result> run() throws Exception {
+    List<Result> results = new ArrayList<>();
+    try (MockWebServer server = new MockWebServer()) {
+      server.setDispatcher(new PayloadDispatcher(payloadBytes, latencyMillis, errorRate));
+      server.start();
+
+      for (int workers : concurrency) {
+        // Every worker keeps its connection instead of opening a new one per call
+        OkHttpClient client = new OkHttpClient.Builder()
+          .connectionPool(new ConnectionPool(workers, 5, TimeUnit.MINUTES))
+          .build();
+        Service service = new Retrofit.Builder()
+          .baseUrl(server.url("/"))
+          .client(client)
+          .addCallAdapterFactory(SynchronousCallAdapterFactory.create())
+          .build()
+          .create(Service.class);
+
+        for (String mode : threads) {
+          Result result = run(service, mode, workers);
+          System.out.println(result.summary());
+          results.add(result);
+        }
+        client.connectionPool().evictAll();
+        client.dispatcher().executorService().shutdown();
+      }
+    }
+    return results;
+  }
+
+  private Result run(Service service, String mode, int workers) throws Exception {
+    ExecutorService executor = mode.equals("virtual")
+      ? Executors.newVirtualThreadPerTaskExecutor()
+      : Executors.newFixedThreadPool(workers);
+    try {
+      runPhase(executor, service, workers, TimeUnit.SECONDS.toNanos(warmupSeconds));
+      System.gc();
+
+      Map<String, long[]> gcBefore = gcCounters();
+      long start = System.nanoTime();
+      List<Worker> completed =
+        runPhase(executor, service, workers, TimeUnit.SECONDS.toNanos(durationSeconds));
+      long elapsedNanos = System.nanoTime() - start;
+      Map<String, long[]> gcAfter = gcCounters();
+      return new Result(mode, workers, elapsedNanos, completed, gcBefore, gcAfter);
+    } finally {
+      executor.shutdownNow();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+  }
+
+  /** Runs {@code workers} workers for {@code durationNanos} and returns them once they're done. */
+  private static List<Worker> runPhase(ExecutorService executor, Service service, int workers,
+    long durationNanos) throws Exception {
+    CountDownLatch ready = new CountDownLatch(workers);
+    CountDownLatch go = new CountDownLatch(1);
+    List<Future<Worker>> futures = new ArrayList<>(workers);
+    long[] end = new long[1];
+    for (int i = 0; i < workers; i++) {
+      Worker worker = new Worker(service);
+      futures.add(executor.submit((Callable<Worker>) () -> {
+        ready.countDown();
+        go.await();
+        worker.run(end[0]);
+        return worker;
+      }));
+    }
+    ready.await();
+    end[0] = System.nanoTime() + durationNanos;
+    go.countDown();
+
+    List<Worker> completed = new ArrayList<>(workers);
+    for (Future<Worker> future : futures) {
+      completed.add(future.get());
+    }
+    return completed;
+  }
+
+  /** Returns the collection count and time of every garbage collector, by name. */
+  private static Map<String, long[]> gcCounters() {
+    Map<String, long[]> counters = new LinkedHashMap<>();
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      counters.put(collector.getName(),
+        new long[] {collector.getCollectionCount(), collector.getCollectionTime()});
+    }
+    return counters;
+  }
+
+  private String report(List<Result> results) {
+    StringBuilder json = new StringBuilder();
+    json.append("{\n");
+    json.append("  \"jvm\": {\n");
+    json.append("    \"version\": \"").append(System.getProperty("java.version")).append("\",\n");
+    json.append("    \"availableProcessors\": ")
+      .append(Runtime.getRuntime().availableProcessors()).append(",\n");
+    json.append("    \"maxHeapBytes\": ").append(Runtime.getRuntime().maxMemory()).append("\n");
+    json.append("  },\n");
+    json.append("  \"config\": {\n");
+    json.append("    \"warmupSeconds\": ").append(warmupSeconds).append(",\n");
+    json.append("    \"durationSeconds\": ").append(durationSeconds).append(",\n");
+    json.append("    \"payloadBytes\": ").append(payloadBytes).append(",\n");
+    json.append("    \"latencyMillis\": ").append(latencyMillis).append(",\n");
+    json.append("    \"errorRate\": ").append(errorRate).append("\n");
+    json.append("  },\n");
+    json.append("  \"scenarios\": [\n");
+    for (int i = 0; i < results.size(); i++) {
+      results.get(i).appendTo(json);
+      json.append(i < results.size() - 1 ? ",\n" : "\n");
+    }
+    json.append("  ]\n");
+    json.append("}\n");
+    return json.toString();
+  }
+
+  /** Answers every request after the injected latency, with an error at the given rate. */
+  static final class PayloadDispatcher extends Dispatcher {
+    private final String payload;
+    private final int latencyMillis;
+    private final double errorRate;
+
+    PayloadDispatcher(int payloadBytes, int latencyMillis, double errorRate) {
+      char[] chars = new char[payloadBytes];
+      Arrays.fill(chars, 'x');
+      this.payload = new String(chars);
+      this.latencyMillis = latencyMillis;
+      this.errorRate = errorRate;
+    }
+
+    @Override public MockResponse dispatch(RecordedRequest request) {
+      MockResponse response = ThreadLocalRandom.current().nextDouble() < errorRate
+        ? new MockResponse().setResponseCode(500).setBody("Broken!")
+        : new MockResponse().setBody(payload);
+      return response.setHeadersDelay(latencyMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /** Calls the service in a loop and records the latency of every call. */
+  static final class Worker {
+    private final Service service;
+    private long[] latencies = new long[1024];
+    private int calls;
+    private int httpErrors;
+    private int failures;
+
+    Worker(Service service) {
+      this.service = service;
+    }
+
+    void run(long endNanos) {
+      long start;
+      while ((start = System.nanoTime()) < endNanos) {
+        try {
+          service.payload().close();
+        } catch (SynchronousHttpException e) {
+          httpErrors++;
+        } catch (SynchronousCallException e) {
+          failures++;
+        }
+        record(System.nanoTime() - start);
+      }
+    }
+
+    private void record(long latencyNanos) {
+      if (calls == latencies.length) {
+        latencies = Arrays.copyOf(latencies, calls * 2);
+      }
+      latencies[calls++] = latencyNanos;
+    }
+  }
+
+  /** Outcome of one scenario. */
+  static final class Result {
+    private final String threads;
+    private final int concurrency;
+    private final long elapsedNanos;
+    private final long calls;
+    private final long httpErrors;
+    private final long failures;
+    private final long[] latencies;
+    private final Map<String, long[]> gc = new LinkedHashMap<>();
+
+    Result(String threads, int concurrency, long elapsedNanos, List<Worker> workers,
+      Map<String, long[]> gcBefore, Map<String, long[]> gcAfter) {
+      this.threads = threads;
+      this.concurrency = concurrency;
+      this.elapsedNanos = elapsedNanos;
+
+      long calls = 0L;
+      long httpErrors = 0L;
+      long failures = 0L;
+      for (Worker worker : workers) {
+        calls += worker.calls;
+        httpErrors += worker.httpErrors;
+        failures += worker.failures;
+      }
+      this.calls = calls;
+      this.httpErrors = httpErrors;
+      this.failures = failures;
+
+      latencies = new long[(int) calls];
+      int offset = 0;
+      for (Worker worker : workers) {
+        System.arraycopy(worker.latencies, 0, latencies, offset, worker.calls);
+        offset += worker.calls;
+      }
+      Arrays.sort(latencies);
+
+      for (Map.Entry<String, long[]> entry : gcAfter.entrySet()) {
+        long[] before = gcBefore.getOrDefault(entry.getKey(), new long[2]);
+        gc.put(entry.getKey(),
+          new long[] {entry.getValue()[0] - before[0], entry.getValue()[1] - before[1]});
+      }
+    }
+
+    double throughput() {
+      return calls / (elapsedNanos / 1e9);
+    }
+
+    /** Returns the latency at {@code percentile}, in milliseconds. */
+    double percentileMillis(double percentile) {
+      if (latencies.length == 0) {
+        return 0.0;
+      }
+      int index = (int) Math.ceil(percentile / 100.0 * latencies.length) - 1;
+      return latencies[Math.max(0, Math.min(latencies.length - 1, index))] / 1e6;
+    }
+
+    String summary() {
+      long collections = 0L;
+      long gcMillis = 0L;
+      for (long[] counters : gc.values()) {
+        collections += counters[0];
+        gcMillis += counters[1];
+      }
+      return String.format(Locale.ROOT,
+        "%-8s concurrency=%-5d %,10.0f calls/s  p50=%.2fms p99=%.2fms p999=%.2fms"
+          + "  errors=%d failures=%d gc=%d (%dms)",
+        threads, concurrency, throughput(), percentileMillis(50.0), percentileMillis(99.0),
+        percentileMillis(99.9), httpErrors, failures, collections, gcMillis);
+    }
+
+    void appendTo(StringBuilder json) {
+      json.append("    {\n");
+      json.append("      \"threads\": \"").append(threads).append("\",\n");
+      json.append("      \"concurrency\": ").append(concurrency).append(",\n");
+      json.append("      \"durationMillis\": ")
+        .append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)).append(",\n");
+      json.append("      \"calls\": ").append(calls).append(",\n");
+      json.append("      \"httpErrors\": ").append(httpErrors).append(",\n");
+      json.append("      \"failures\": ").append(failures).append(",\n");
+      json.append("      \"throughputPerSecond\": ")
+        .append(String.format(Locale.ROOT, "%.1f", throughput())).append(",\n");
+      json.append("      \"latencyMillis\": {");
+      json.append(String.format(Locale.ROOT,
+        "\"p50\": %.3f, \"p99\": %.3f, \"p999\": %.3f, \"max\": %.3f",
+        percentileMillis(50.0), percentileMillis(99.0), percentileMillis(99.9),
+        percentileMillis(100.0)));
+      json.append("},\n");
+      json.append("      \"gc\": {");
+      int i = 0;
+      for (Map.Entry<String, long[]> entry : gc.entrySet()) {
+        json.append(i++ > 0 ? ", " : "")
+          .append('"').append(entry.getKey()).append("\": {\"collections\": ")
+          .append(entry.getValue()[0]).append(", \"timeMillis\": ")
+          .append(entry.getValue()[1]).append('}');
+      }
+      json.append("}\n");
+      json.append("    }");
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the deserialized body of successful responses in memory:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;Cacheable(ttl = 30)
+ *   &#64;GET("config")
+ *   Config getConfig()
+ * }
+ * </code></pre>
+ * Cached bodies are returned as is, without a request, until their {@link #ttl()} expires. An
+ * expired entry whose response had an {@code ETag} or {@code Last-Modified} header is revalidated
+ * with {@code If-None-Match} or {@code If-Modified-Since}; a {@code 304 Not Modified} returns the
+ * cached body without deserializing it again. The conditional request is sent through
+ * {@link retrofit2.Retrofit#callFactory()}, without the method's {@link Retry}, {@link Hedge} or
+ * {@link Timeout}.
+ * <p>
+ * The cache keeps at most {@link #maxEntries()} bodies and evicts the least recently used one.
+ * Responses with {@code Cache-Control: no-store} are not cached. Only {@code GET} requests
+ * returning a deserialized body, other than {@link okhttp3.ResponseBody}, may be cached. Cached
+ * bodies are shared between callers and should not be mutated.
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Cacheable {
+  /** How long a cached body is returned without a request. */
+  long ttl();
+
+  /** Unit of {@link #ttl()}. */
+  TimeUnit unit() default SECONDS;
+
+  /** Maximum number of cached bodies. */
+  int maxEntries() default 1_000;
+
+  /** Names of the request headers that are part of the cache key. All headers are if empty. */
+  String[] headers() default {};
+}
@@ -0,0 +1,16 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+/**
+ * Java Flight Recorder events of synchronous calls. This is the Java 8 version, which records no
+ * events; the jar contains a Java 21 version under {@code META-INF/versions/21}.
+ */
+final class CallEvents {
+  private CallEvents() {
+    throw new AssertionError("No instances.");
+  }
+
+  /** Returns {@code delegate}, recording an event for each of its calls if supported. */
+  static CallExecutor wrap(CallExecutor delegate, MethodDescriptor method) {
+    return delegate;
+  }
+}
@@ -0,0 +1,29 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Executes a {@link Call} on behalf of the adapters. Per-method policies, such as {@link Retry},
+ * are decorators around {@link #DIRECT}.
+ */
+interface CallExecutor {
+  /** Executes the call on the calling thread. */
+  CallExecutor DIRECT = new CallExecutor() {
+    @Override public <R> Response<R> execute(Call<R> call) throws IOException {
+      try {
+        return call.execute();
+      } catch (IOException e) {
+        // Interrupting a virtual thread closes its socket. Mark the call as canceled so that it is
+        // treated as such, for example by Retry, instead of as a network failure
+        if (Thread.currentThread().isInterrupted()) {
+          call.cancel();
+        }
+        throw e;
+      }
+    }
+  };
+
+  <R> Response<R> execute(Call<R> call) throws IOException;
+}
@@ -0,0 +1,58 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import retrofit2.Response;
+
+/**
+ * Observes the synchronous calls of every service method:
+ * <pre><code>
+ * HistogramMetricsListener metrics = new HistogramMetricsListener();
+ * Retrofit retrofit = new Retrofit.Builder()
+ *   .addCallAdapterFactory(SynchronousCallAdapterFactory.create(metrics))
+ *   ...
+ * </code></pre>
+ * Every call starts with {@link #callStart} and ends with exactly one of
+ * {@link #responseReceived}, {@link #httpError}, {@link #ioException} or {@link #failure}. A call
+ * includes all of its {@link Retry} and {@link Hedge} attempts. Bodies returned by
+ * {@link Cacheable} without a request, calls joining a {@link Coalesce}d call and calls rejected
+ * by an open {@link CircuitBreaker} are not observed.
+ * <p>
+ * There is no separate callback for the decoding of the body: Retrofit runs the converter inside
+ * {@link retrofit2.Call#execute()}, before the adapters see the response. The duration passed to
+ * {@link #responseReceived} therefore includes the decoding of the body, and a converter that
+ * fails ends the call with {@link #failure}.
+ * <p>
+ * Listeners are invoked on the calling thread and must be thread-safe and fast.
+ */
+public interface CallMetricsListener {
+  /** Listener that ignores every event. */
+  CallMetricsListener NONE = new CallMetricsListener() {
+  };
+
+  /** Invoked before the call is executed. */
+  default void callStart(MethodDescriptor method) {
+  }
+
+  /**
+   * Invoked when the call completed with a 2XX response and its decoded body. The duration
+   * includes the time spent decoding the body.
+   */
+  default void responseReceived(MethodDescriptor method, Response<?> response,
+    long durationNanos) {
+  }
+
+  /** Invoked when the call completed with a non-2XX response. */
+  default void httpError(MethodDescriptor method, Response<?> response, long durationNanos) {
+  }
+
+  /** Invoked when the call failed with a network error or a timeout. */
+  default void ioException(MethodDescriptor method, IOException e, long durationNanos) {
+  }
+
+  /**
+   * Invoked when the call failed with a runtime exception, such as a converter failing to decode
+   * the body or a call rejected by a {@link ConcurrencyLimit} or a {@link RateLimit}.
+   */
+  default void failure(MethodDescriptor method, RuntimeException e, long durationNanos) {
+  }
+}
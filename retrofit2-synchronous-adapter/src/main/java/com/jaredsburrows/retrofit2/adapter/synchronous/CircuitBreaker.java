@@ -0,0 +1,75 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fails calls fast with a {@link CircuitBreakerOpenException}, without executing them, while the
+ * dependency they call is failing:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;CircuitBreaker(failureRateThreshold = 25, waitInOpenState = 10, unit = SECONDS)
+ *   &#64;GET("user/me")
+ *   User getUser()
+ * }
+ * </code></pre>
+ * The breaker records the outcome of the last {@link #slidingWindowSize()} calls. It opens when
+ * the percentage of failed calls reaches {@link #failureRateThreshold()}, or the percentage of
+ * calls slower than {@link #slowCallDuration()} reaches {@link #slowCallRateThreshold()}. After
+ * {@link #waitInOpenState()} it lets {@link #permittedCallsInHalfOpenState()} probe calls
+ * through; it closes if all of them succeed and opens again otherwise.
+ * <p>
+ * Network errors and responses with one of {@link #statusCodes()} are failures. Retried calls are
+ * recorded once, with the outcome of their last attempt.
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface CircuitBreaker {
+  /** Percentage of failed calls, between 1 and 100, that opens the breaker. */
+  int failureRateThreshold() default 50;
+
+  /** Percentage of slow calls, between 1 and 100, that opens the breaker. */
+  int slowCallRateThreshold() default 100;
+
+  /** Duration above which a call is slow. */
+  long slowCallDuration() default 60_000;
+
+  /** Number of most recent calls the rates are computed over. */
+  int slidingWindowSize() default 100;
+
+  /** Number of calls that must be recorded before the rates can open the breaker. */
+  int minimumCalls() default 10;
+
+  /** Time the breaker stays open before probing the dependency again. */
+  long waitInOpenState() default 30_000;
+
+  /** Unit of {@link #slowCallDuration()} and {@link #waitInOpenState()}. */
+  TimeUnit unit() default MILLISECONDS;
+
+  /** Number of probe calls let through while half-open. */
+  int permittedCallsInHalfOpenState() default 5;
+
+  /** Response codes that are failures. */
+  int[] statusCodes() default {500, 502, 503, 504};
+
+  /** Whether the breaker is shared by every call of the method or by every call to a host. */
+  Scope scope() default Scope.METHOD;
+
+  /** What a breaker is shared by. */
+  enum Scope {
+    /** One breaker per service method. */
+    METHOD,
+    /**
+     * One breaker per host, shared by every service method created by the same
+     * {@link SynchronousCallAdapterFactory} with an equal {@link CircuitBreaker}.
+     */
+    HOST
+  }
+}
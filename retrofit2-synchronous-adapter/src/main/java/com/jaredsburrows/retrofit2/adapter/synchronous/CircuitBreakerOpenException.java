@@ -0,0 +1,10 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+/** Thrown instead of executing a call while its {@link CircuitBreaker} is open. */
+public final class CircuitBreakerOpenException extends SynchronousCallException {
+  private static final long serialVersionUID = 1L;
+
+  CircuitBreakerOpenException(String message, boolean stackTrace) {
+    super(message, null, stackTrace);
+  }
+}
@@ -0,0 +1,140 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free state machine of a {@link CircuitBreaker}. The current {@link Phase} is immutable
+ * apart from its counters and is replaced with a compare-and-set on every transition, so calls
+ * only allocate when the breaker changes state.
+ */
+final class CircuitBreakerState {
+  static final int CLOSED = 0;
+  static final int OPEN = 1;
+  static final int HALF_OPEN = 2;
+
+  // Outcomes stored in the sliding window
+  private static final int RECORDED = 1;
+  private static final int FAILED = 1 << 1;
+  private static final int SLOW = 1 << 2;
+
+  private final String name;
+  private final int failureRateThreshold;
+  private final int slowCallRateThreshold;
+  private final int slidingWindowSize;
+  private final int minimumCalls;
+  private final long waitInOpenStateNanos;
+  private final int permittedCallsInHalfOpenState;
+  private final AtomicReference<Phase> phase;
+
+  CircuitBreakerState(String name, CircuitBreaker breaker) {
+    this.name = name;
+    this.failureRateThreshold = breaker.failureRateThreshold();
+    this.slowCallRateThreshold = breaker.slowCallRateThreshold();
+    this.slidingWindowSize = breaker.slidingWindowSize();
+    this.minimumCalls = Math.min(breaker.minimumCalls(), breaker.slidingWindowSize());
+    this.waitInOpenStateNanos = breaker.unit().toNanos(breaker.waitInOpenState());
+    this.permittedCallsInHalfOpenState = breaker.permittedCallsInHalfOpenState();
+    this.phase = new AtomicReference<>(closed());
+  }
+
+  /**
+   * Returns the phase a call is permitted in, to be passed to {@link #onResult} or
+   * {@link #onIgnored}, or throws if the breaker is open.
+   */
+  Phase acquire(Exceptions exceptions) {
+    for (;;) {
+      Phase current = phase.get();
+      if (current.state == CLOSED) {
+        return current;
+      }
+      if (current.state == OPEN) {
+        if (System.nanoTime() - current.openedAtNanos < waitInOpenStateNanos) {
+          throw exceptions.circuitBreakerOpen("Circuit breaker is open for " + name);
+        }
+        phase.compareAndSet(current, new Phase(HALF_OPEN, 0L, permittedCallsInHalfOpenState, 0));
+        continue;
+      }
+      if (current.permits.getAndDecrement() > 0) {
+        return current;
+      }
+      throw exceptions.circuitBreakerOpen("Circuit breaker is half-open for " + name);
+    }
+  }
+
+  /** Records the outcome of a call permitted in {@code permitted}. */
+  void onResult(Phase permitted, boolean failed, boolean slow) {
+    if (permitted.state == HALF_OPEN) {
+      if (failed || slow) {
+        phase.compareAndSet(permitted, open());
+      } else if (permitted.successes.incrementAndGet() >= permittedCallsInHalfOpenState) {
+        phase.compareAndSet(permitted, closed());
+      }
+      return;
+    }
+
+    // Outcomes of calls started before the last transition are stale
+    if (permitted.state != CLOSED || phase.get() != permitted) {
+      return;
+    }
+
+    int outcome = RECORDED | (failed ? FAILED : 0) | (slow ? SLOW : 0);
+    int index = (int) (permitted.index.getAndIncrement() % slidingWindowSize);
+    int previous = permitted.window.getAndSet(index, outcome);
+    int calls = previous == 0 ? permitted.calls.incrementAndGet() : permitted.calls.get();
+    int failures = update(permitted.failures, previous, outcome, FAILED);
+    int slowCalls = update(permitted.slowCalls, previous, outcome, SLOW);
+
+    if (calls >= minimumCalls
+      && (failures * 100L >= failureRateThreshold * (long) calls
+      || slowCalls * 100L >= slowCallRateThreshold * (long) calls)) {
+      phase.compareAndSet(permitted, open());
+    }
+  }
+
+  /** Releases a call permitted in {@code permitted} that ended without an outcome. */
+  void onIgnored(Phase permitted) {
+    if (permitted.state == HALF_OPEN) {
+      permitted.permits.incrementAndGet();
+    }
+  }
+
+  int state() {
+    return phase.get().state;
+  }
+
+  private static int update(AtomicInteger counter, int previous, int outcome, int flag) {
+    int delta = ((outcome & flag) != 0 ? 1 : 0) - ((previous & flag) != 0 ? 1 : 0);
+    return delta == 0 ? counter.get() : counter.addAndGet(delta);
+  }
+
+  private Phase closed() {
+    return new Phase(CLOSED, 0L, 0, slidingWindowSize);
+  }
+
+  private Phase open() {
+    return new Phase(OPEN, System.nanoTime(), 0, 0);
+  }
+
+  static final class Phase {
+    final int state;
+    final long openedAtNanos;
+    final AtomicInteger permits;
+    final AtomicInteger successes = new AtomicInteger();
+    // Sliding window of the closed state
+    final AtomicIntegerArray window;
+    final AtomicLong index = new AtomicLong();
+    final AtomicInteger calls = new AtomicInteger();
+    final AtomicInteger failures = new AtomicInteger();
+    final AtomicInteger slowCalls = new AtomicInteger();
+
+    Phase(int state, long openedAtNanos, int permits, int windowSize) {
+      this.state = state;
+      this.openedAtNanos = openedAtNanos;
+      this.permits = new AtomicInteger(permits);
+      this.window = new AtomicIntegerArray(windowSize);
+    }
+  }
+}
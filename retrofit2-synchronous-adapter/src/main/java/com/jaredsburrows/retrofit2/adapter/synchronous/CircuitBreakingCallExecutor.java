@@ -0,0 +1,135 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/** {@link CallExecutor} that applies a {@link CircuitBreaker} policy. */
+final class CircuitBreakingCallExecutor implements CallExecutor {
+  private final CallExecutor delegate;
+  private final CircuitBreaker breaker;
+  private final long slowCallDurationNanos;
+  private final int[] statusCodes;
+  // Breaker of the method, or null if breakers are shared per host
+  @Nullable private final CircuitBreakerState methodState;
+  @Nullable private final ConcurrentMap<String, CircuitBreakerState> hostStates;
+  private final Exceptions exceptions;
+
+  private CircuitBreakingCallExecutor(CallExecutor delegate, CircuitBreaker breaker,
+    @Nullable CircuitBreakerState methodState,
+    @Nullable ConcurrentMap<String, CircuitBreakerState> hostStates, Exceptions exceptions) {
+    this.delegate = delegate;
+    this.exceptions = exceptions;
+    this.breaker = breaker;
+    this.slowCallDurationNanos = breaker.unit().toNanos(breaker.slowCallDuration());
+    this.statusCodes = breaker.statusCodes().clone();
+    this.methodState = methodState;
+    this.hostStates = hostStates;
+    Arrays.sort(statusCodes);
+  }
+
+  /**
+   * Creates an executor whose breaker is keyed by {@code method} or, for {@link
+   * CircuitBreaker.Scope#HOST}, by host in {@code hostStates}, which is shared by every method of
+   * the factory.
+   */
+  static CallExecutor create(CallExecutor delegate, CircuitBreaker breaker,
+    MethodDescriptor method,
+    ConcurrentMap<CircuitBreaker, ConcurrentMap<String, CircuitBreakerState>> hostStates,
+    Exceptions exceptions) {
+    if (breaker.failureRateThreshold() < 1 || breaker.failureRateThreshold() > 100) {
+      throw new IllegalStateException(
+        "@CircuitBreaker failureRateThreshold must be between 1 and 100");
+    }
+    if (breaker.slowCallRateThreshold() < 1 || breaker.slowCallRateThreshold() > 100) {
+      throw new IllegalStateException(
+        "@CircuitBreaker slowCallRateThreshold must be between 1 and 100");
+    }
+    if (breaker.slidingWindowSize() < 1 || breaker.minimumCalls() < 1) {
+      throw new IllegalStateException(
+        "@CircuitBreaker slidingWindowSize and minimumCalls must be at least 1");
+    }
+    if (breaker.permittedCallsInHalfOpenState() < 1) {
+      throw new IllegalStateException(
+        "@CircuitBreaker permittedCallsInHalfOpenState must be at least 1");
+    }
+    if (breaker.slowCallDuration() < 0 || breaker.waitInOpenState() < 0) {
+      throw new IllegalStateException(
+        "@CircuitBreaker slowCallDuration and waitInOpenState must not be negative");
+    }
+
+    if (breaker.scope() == CircuitBreaker.Scope.HOST) {
+      ConcurrentMap<String, CircuitBreakerState> states = hostStates.get(breaker);
+      if (states == null) {
+        ConcurrentMap<String, CircuitBreakerState> created = new ConcurrentHashMap<>();
+        states = hostStates.putIfAbsent(breaker, created);
+        if (states == null) {
+          states = created;
+        }
+      }
+      return new CircuitBreakingCallExecutor(delegate, breaker, null, states, exceptions);
+    }
+    return new CircuitBreakingCallExecutor(delegate, breaker,
+      new CircuitBreakerState(method.toString(), breaker), null, exceptions);
+  }
+
+  @Override public <R> Response<R> execute(Call<R> call) throws IOException {
+    CircuitBreakerState state = state(call);
+    CircuitBreakerState.Phase phase = state.acquire(exceptions);
+
+    long start = System.nanoTime();
+    boolean recorded = false;
+    try {
+      Response<R> response = delegate.execute(call);
+      state.onResult(phase, Arrays.binarySearch(statusCodes, response.code()) >= 0,
+        System.nanoTime() - start >= slowCallDurationNanos);
+      recorded = true;
+      return response;
+    } catch (IOException e) {
+      if (!isCallerFailure(call, e)) {
+        state.onResult(phase, true, System.nanoTime() - start >= slowCallDurationNanos);
+        recorded = true;
+      }
+      throw e;
+    } finally {
+      if (!recorded) {
+        state.onIgnored(phase);
+      }
+    }
+  }
+
+  /**
+   * Returns true if the call failed because of its caller rather than the dependency: it was
+   * rejected by its {@link Deadline} without being sent, or canceled.
+   */
+  private static boolean isCallerFailure(Call<?> call, IOException e) {
+    if (e instanceof DeadlineExceededException || Thread.currentThread().isInterrupted()) {
+      return true;
+    }
+    // Timeouts cancel the call too
+    return call.isCanceled() && !(e instanceof InterruptedIOException);
+  }
+
+  private CircuitBreakerState state(Call<?> call) {
+    if (methodState != null) {
+      return methodState;
+    }
+
+    String host = call.request().url().host();
+    ConcurrentMap<String, CircuitBreakerState> states = hostStates;
+    CircuitBreakerState state = states.get(host);
+    if (state == null) {
+      CircuitBreakerState created = new CircuitBreakerState(host, breaker);
+      state = states.putIfAbsent(host, created);
+      if (state == null) {
+        state = created;
+      }
+    }
+    return state;
+  }
+}
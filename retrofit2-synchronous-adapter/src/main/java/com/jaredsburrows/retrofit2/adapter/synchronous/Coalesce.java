@@ -0,0 +1,33 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Lets concurrent identical calls share a single execution:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;Coalesce
+ *   &#64;GET("user/{id}")
+ *   User getUser(@Path("id") String id)
+ * }
+ * </code></pre>
+ * Calls are identical when they have the same HTTP method, URL and {@link #headers()}. While a
+ * call is in flight, identical calls wait for it and return the same deserialized body, or throw
+ * the same exception. A waiting call throws {@link SynchronousTimeoutException} once its own
+ * {@link Deadline} or {@link Timeout} passes.
+ * <p>
+ * Only {@code GET} and {@code HEAD} requests returning a deserialized body, other than
+ * {@link okhttp3.ResponseBody}, may be coalesced.
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Coalesce {
+  /** Names of the request headers that distinguish calls. All headers are compared if empty. */
+  String[] headers() default {};
+}
@@ -0,0 +1,50 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collapses concurrent calls of a method taking a single key into one call of a {@link #bulk()}
+ * method of the same service:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;Collapse(bulk = "getUsers")
+ *   &#64;GET("users/{id}")
+ *   User getUser(@Path("id") String id)
+ *
+ *   &#64;GET("users")
+ *   Map&lt;String, User&gt; getUsers(@Query("id") List&lt;String&gt; ids)
+ * }
+ * </code></pre>
+ * The first call waits up to {@link #window()} for other calls to join its batch, or until the
+ * batch holds {@link #maxBatchSize()} distinct keys, and then calls the bulk method with the keys
+ * of the batch. Every caller returns the value mapped to its key, or null if there is none, or
+ * throws the exception of the bulk call.
+ * <p>
+ * The bulk method takes a {@link java.util.List}, {@link java.util.Set} or
+ * {@link java.util.Collection} of keys and returns a {@link java.util.Map} from key to value. It is
+ * called through {@link retrofit2.Retrofit#create(Class)}, with its own policies; the policies of
+ * the collapsed method are not applied.
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Collapse {
+  /** Name of the bulk method of the same service. */
+  String bulk();
+
+  /** How long the first call of a batch waits for other calls. */
+  long window() default 10;
+
+  /** Unit of {@link #window()}. */
+  TimeUnit unit() default MILLISECONDS;
+
+  /** Number of distinct keys after which a batch is called without waiting further. */
+  int maxBatchSize() default 100;
+}
@@ -0,0 +1,207 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.InterruptedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import retrofit2.Call;
+import retrofit2.Invocation;
+import retrofit2.Retrofit;
+
+/** Batches concurrent calls into calls of a bulk method, as declared by {@link Collapse}. */
+final class Collapser {
+  private final Retrofit retrofit;
+  private final String bulkName;
+  private final long windowNanos;
+  private final int maxBatchSize;
+  private final Exceptions exceptions;
+  // Batch that calls can still join, guarded by this
+  private @Nullable Batch open;
+  // Resolved on the first call, which is the first time the service interface is known
+  private volatile @Nullable Bulk bulk;
+
+  private Collapser(Retrofit retrofit, String bulkName, long windowNanos, int maxBatchSize,
+    Exceptions exceptions) {
+    this.retrofit = retrofit;
+    this.bulkName = bulkName;
+    this.windowNanos = windowNanos;
+    this.maxBatchSize = maxBatchSize;
+    this.exceptions = exceptions;
+  }
+
+  static Collapser create(Collapse collapse, Retrofit retrofit, Exceptions exceptions) {
+    if (collapse.bulk().isEmpty()) {
+      throw new IllegalStateException("@Collapse bulk must name a method");
+    }
+    if (collapse.window() < 0) {
+      throw new IllegalStateException("@Collapse window must not be negative");
+    }
+    if (collapse.maxBatchSize() < 1) {
+      throw new IllegalStateException("@Collapse maxBatchSize must be at least 1");
+    }
+    return new Collapser(retrofit, collapse.bulk(), collapse.unit().toNanos(collapse.window()),
+      collapse.maxBatchSize(), exceptions);
+  }
+
+  /** Returns the value of the key of {@code call}, as returned by the bulk call of its batch. */
+  @Nullable Object execute(Call<?> call) {
+    Invocation invocation = call.request().tag(Invocation.class);
+    if (invocation == null || invocation.arguments().size() != 1) {
+      throw new IllegalStateException("@Collapse methods must take exactly one parameter");
+    }
+    Object key = invocation.arguments().get(0);
+    Bulk bulk = bulk(invocation.method());
+
+    Batch batch;
+    boolean leader;
+    synchronized (this) {
+      batch = open;
+      leader = batch == null;
+      if (leader) {
+        batch = new Batch();
+        open = batch;
+      }
+      batch.keys.add(key);
+      if (batch.keys.size() >= maxBatchSize) {
+        open = null;
+        batch.full.countDown();
+      }
+    }
+
+    if (leader) {
+      boolean interrupted = batch.awaitFull(windowNanos);
+      synchronized (this) {
+        if (open == batch) {
+          open = null;
+        }
+      }
+      try {
+        batch.run(bulk);
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    } else {
+      batch.await(exceptions);
+    }
+    return batch.result(key);
+  }
+
+  private Bulk bulk(Method method) {
+    Bulk resolved = bulk;
+    if (resolved == null) {
+      Class<?> service = method.getDeclaringClass();
+      resolved = new Bulk(retrofit.create(service), bulkMethod(service));
+      bulk = resolved;
+    }
+    return resolved;
+  }
+
+  private Method bulkMethod(Class<?> service) {
+    for (Method method : service.getMethods()) {
+      if (!method.getName().equals(bulkName) || method.getParameterCount() != 1) {
+        continue;
+      }
+      Class<?> keys = method.getParameterTypes()[0];
+      if (!keys.isAssignableFrom(ArrayList.class) && !keys.isAssignableFrom(LinkedHashSet.class)) {
+        throw new IllegalStateException(
+          "@Collapse bulk method " + bulkName + " must take a List, Set or Collection");
+      }
+      if (method.getReturnType() != Map.class) {
+        throw new IllegalStateException(
+          "@Collapse bulk method " + bulkName + " must return a Map");
+      }
+      return method;
+    }
+    throw new IllegalStateException("@Collapse bulk method " + bulkName + " with one parameter"
+      + " not found on " + service.getName());
+  }
+
+  private static final class Bulk {
+    final Object service;
+    final Method method;
+    final boolean set;
+
+    Bulk(Object service, Method method) {
+      this.service = service;
+      this.method = method;
+      this.set = !method.getParameterTypes()[0].isAssignableFrom(ArrayList.class);
+    }
+
+    @Nullable Map<?, ?> call(Set<Object> keys) {
+      Collection<Object> argument = set ? keys : new ArrayList<>(keys);
+      try {
+        return (Map<?, ?>) method.invoke(service, argument);
+      } catch (IllegalAccessException e) {
+        throw new AssertionError(e);
+      } catch (InvocationTargetException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        // Service methods only throw unchecked exceptions through this adapter
+        throw (RuntimeException) cause;
+      }
+    }
+  }
+
+  private static final class Batch {
+    // Guarded by the collapser while the batch is open
+    final Set<Object> keys = new LinkedHashSet<>();
+    final CountDownLatch full = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(1);
+    @Nullable Map<?, ?> results;
+    @Nullable Throwable failure;
+
+    /** Waits until the batch is full or the window elapses, returning true if interrupted. */
+    boolean awaitFull(long windowNanos) {
+      try {
+        full.await(windowNanos, TimeUnit.NANOSECONDS);
+        return false;
+      } catch (InterruptedException e) {
+        // The other callers of the batch still need its results
+        return true;
+      }
+    }
+
+    // Called once the batch is no longer open, keys can't change anymore
+    void run(Bulk bulk) {
+      try {
+        results = bulk.call(keys);
+      } catch (RuntimeException | Error e) {
+        failure = e;
+        throw e;
+      } finally {
+        done.countDown();
+      }
+    }
+
+    void await(Exceptions exceptions) {
+      try {
+        done.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw exceptions.failure(null,
+          new InterruptedIOException("interrupted while waiting for batch"));
+      }
+    }
+
+    @Nullable Object result(Object key) {
+      if (failure instanceof RuntimeException) {
+        throw (RuntimeException) failure;
+      }
+      if (failure instanceof Error) {
+        throw (Error) failure;
+      }
+      return results != null ? results.get(key) : null;
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Sends the request body gzip-compressed, with {@code Content-Encoding: gzip}, once it reaches
+ * {@link #minBytes()}:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;CompressRequest(minBytes = 4096)
+ *   &#64;POST("events")
+ *   Ack upload(@Body List&lt;Event&gt; events)
+ * }
+ * </code></pre>
+ * Bodies are compressed by the interceptor of
+ * {@link SynchronousCallAdapterFactory#requestCompression()}, which must be added to the
+ * {@link okhttp3.OkHttpClient} of the service. The server must accept gzip request bodies.
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface CompressRequest {
+  /** Minimum length of the bodies to compress. Bodies of unknown length are always compressed. */
+  long minBytes() default 1024;
+}
@@ -0,0 +1,56 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the number of concurrent calls of a service method with a limit that adapts to the
+ * latency of the dependency:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;ConcurrencyLimit(initialLimit = 10, maxLimit = 50, maxWait = 100)
+ *   &#64;GET("user/me")
+ *   User getUser()
+ * }
+ * </code></pre>
+ * The limit follows an additive-increase, multiplicative-decrease algorithm: it grows by one
+ * after roughly a limit's worth of successful calls that used at least half of it, and is
+ * multiplied by {@link #backoffRatio()} when a call fails with a network error, is answered with
+ * {@code 429} or {@code 503}, or takes longer than {@link #latencyThreshold()}.
+ * <p>
+ * Calls over the limit wait up to {@link #maxWait()} for a slot and then fail with a
+ * {@link ConcurrencyLimitException}, or with a {@link SynchronousTimeoutException} if their
+ * {@link Deadline} passes first. Each {@link Retry} attempt and {@link Hedge} takes its own
+ * slot, so backoff delays don't hold one.
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface ConcurrencyLimit {
+  /** Limit before any call completed. */
+  int initialLimit() default 20;
+
+  /** Lowest value the limit decreases to. */
+  int minLimit() default 1;
+
+  /** Highest value the limit increases to. */
+  int maxLimit() default 200;
+
+  /** Factor, between 0 and 1, applied to the limit when a call is dropped. */
+  double backoffRatio() default 0.9;
+
+  /** Duration above which a call counts as dropped. */
+  long latencyThreshold() default 5_000;
+
+  /** Time a call over the limit waits for a slot before failing, 0 to fail immediately. */
+  long maxWait() default 0;
+
+  /** Unit of {@link #latencyThreshold()} and {@link #maxWait()}. */
+  TimeUnit unit() default MILLISECONDS;
+}
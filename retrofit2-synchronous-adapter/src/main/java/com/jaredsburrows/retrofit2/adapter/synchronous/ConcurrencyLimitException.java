@@ -0,0 +1,10 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+/** Thrown instead of executing a call when its {@link ConcurrencyLimit} is reached. */
+public final class ConcurrencyLimitException extends SynchronousCallException {
+  private static final long serialVersionUID = 1L;
+
+  ConcurrencyLimitException(String message, boolean stackTrace) {
+    super(message, null, stackTrace);
+  }
+}
@@ -0,0 +1,122 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Time budget shared by every synchronous call made by a thread while it is attached:
+ * <pre><code>
+ * try (Deadline.Scope scope = Deadline.after(2, SECONDS).attach()) {
+ *   User user = service.user(id);
+ *   List&lt;Order&gt; orders = service.orders(user.id);
+ * }
+ * </code></pre>
+ * Every call is limited to the lesser of its {@link Timeout}, or client call timeout, and the time
+ * remaining, and fails with {@link SynchronousTimeoutException} without being executed once the
+ * deadline has passed. {@link Retry} does not back off past the deadline. Hedged calls and
+ * prefetched pages inherit the deadline of the thread that started them.
+ */
+public final class Deadline {
+  // Caps durations so that the deadline doesn't overflow System.nanoTime()
+  private static final long MAX_NANOS = Long.MAX_VALUE / 4;
+  private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+  private final long deadlineNanos;
+
+  private Deadline(long deadlineNanos) {
+    this.deadlineNanos = deadlineNanos;
+  }
+
+  /** Returns a deadline {@code duration} from now. */
+  public static Deadline after(long duration, TimeUnit unit) {
+    if (duration < 0) {
+      throw new IllegalArgumentException("duration < 0: " + duration);
+    }
+    return new Deadline(System.nanoTime() + Math.min(unit.toNanos(duration), MAX_NANOS));
+  }
+
+  /** Returns the deadline attached to the current thread, or null if there is none. */
+  @Nullable public static Deadline current() {
+    return CURRENT.get();
+  }
+
+  /** Returns the time remaining before this deadline, or 0 if it has passed. */
+  public long remaining(TimeUnit unit) {
+    return unit.convert(Math.max(0L, remainingNanos()), TimeUnit.NANOSECONDS);
+  }
+
+  public boolean isExpired() {
+    return remainingNanos() <= 0L;
+  }
+
+  /**
+   * Attaches this deadline to the current thread until the returned scope is closed. A deadline
+   * attached while an earlier one is in effect does not extend it.
+   */
+  public Scope attach() {
+    Deadline previous = CURRENT.get();
+    Deadline attached = previous != null && previous.deadlineNanos - deadlineNanos < 0L
+      ? previous
+      : this;
+    CURRENT.set(attached);
+    return new Scope(previous);
+  }
+
+  long remainingNanos() {
+    return deadlineNanos - System.nanoTime();
+  }
+
+  /** Returns the time remaining before the current deadline, or {@link Long#MAX_VALUE}. */
+  static long currentRemainingNanos() {
+    Deadline deadline = CURRENT.get();
+    return deadline != null ? deadline.remainingNanos() : Long.MAX_VALUE;
+  }
+
+  /** Returns {@code task} running with {@code deadline} attached, for tasks of other threads. */
+  static Runnable wrap(@Nullable Deadline deadline, Runnable task) {
+    if (deadline == null) {
+      return task;
+    }
+    return () -> {
+      Scope scope = deadline.attach();
+      try {
+        task.run();
+      } finally {
+        scope.close();
+      }
+    };
+  }
+
+  /** Returns {@code task} running with {@code deadline} attached, for tasks of other threads. */
+  static <T> Callable<T> wrap(@Nullable Deadline deadline, Callable<T> task) {
+    if (deadline == null) {
+      return task;
+    }
+    return () -> {
+      Scope scope = deadline.attach();
+      try {
+        return task.call();
+      } finally {
+        scope.close();
+      }
+    };
+  }
+
+  /** Restores the deadline that was in effect before {@link #attach()} once closed. */
+  public static final class Scope implements AutoCloseable {
+    private final @Nullable Deadline previous;
+
+    Scope(@Nullable Deadline previous) {
+      this.previous = previous;
+    }
+
+    @Override public void close() {
+      if (previous != null) {
+        CURRENT.set(previous);
+      } else {
+        CURRENT.remove();
+      }
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * {@link CallExecutor} that lowers the timeout of every call it executes to the time remaining
+ * before the current {@link Deadline}, and rejects calls once it has passed.
+ */
+final class DeadlineCallExecutor implements CallExecutor {
+  private final CallExecutor delegate;
+
+  DeadlineCallExecutor(CallExecutor delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override public <R> Response<R> execute(Call<R> call) throws IOException {
+    Deadline deadline = Deadline.current();
+    if (deadline == null) {
+      return delegate.execute(call);
+    }
+    long remainingNanos = deadline.remainingNanos();
+    if (remainingNanos <= 0L) {
+      throw new DeadlineExceededException();
+    }
+    okio.Timeout timeout = call.timeout();
+    long timeoutNanos = timeout.timeoutNanos();
+    if (timeoutNanos == 0L || remainingNanos < timeoutNanos) {
+      timeout.timeout(remainingNanos, TimeUnit.NANOSECONDS);
+    }
+    return delegate.execute(call);
+  }
+}
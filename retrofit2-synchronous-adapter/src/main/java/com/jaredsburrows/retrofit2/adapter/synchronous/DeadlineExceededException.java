@@ -0,0 +1,15 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Thrown by {@link DeadlineCallExecutor} for calls rejected without being sent because their
+ * {@link Deadline} has passed. It is reported as a {@link SynchronousTimeoutException}.
+ */
+final class DeadlineExceededException extends InterruptedIOException {
+  private static final long serialVersionUID = 1L;
+
+  DeadlineExceededException() {
+    super("deadline exceeded");
+  }
+}
@@ -0,0 +1,59 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Lazily created daemon executors shared by every adapter. */
+final class DefaultExecutors {
+  private DefaultExecutors() {
+    throw new AssertionError("No instances.");
+  }
+
+  /** Runs blocking calls that do not execute on the caller's thread. */
+  static ExecutorService io() {
+    return IoHolder.INSTANCE;
+  }
+
+  /** Runs short, non-blocking timer tasks. */
+  static ScheduledExecutorService scheduler() {
+    return SchedulerHolder.INSTANCE;
+  }
+
+  private static final class IoHolder {
+    static final ExecutorService INSTANCE = newIo();
+
+    private static ExecutorService newIo() {
+      // Blocking calls are cheap on virtual threads, use them when the runtime supports them
+      ExecutorService virtual = VirtualThreads.newVirtualThreadPerTaskExecutor();
+      if (virtual != null) {
+        return virtual;
+      }
+      return Executors.newCachedThreadPool(threadFactory("SynchronousCallAdapter io"));
+    }
+  }
+
+  private static final class SchedulerHolder {
+    static final ScheduledExecutorService INSTANCE = newScheduler();
+
+    private static ScheduledExecutorService newScheduler() {
+      ScheduledThreadPoolExecutor scheduler =
+        new ScheduledThreadPoolExecutor(1, threadFactory("SynchronousCallAdapter scheduler"));
+      // Most timers are canceled long before they fire, don't keep them queued until then
+      scheduler.setRemoveOnCancelPolicy(true);
+      return scheduler;
+    }
+  }
+
+  private static ThreadFactory threadFactory(String name) {
+    AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, name + " " + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
@@ -0,0 +1,33 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the type non-2XX response bodies are decoded to:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;ErrorBody(ApiError.class)
+ *   &#64;GET("user/me")
+ *   User getUser()
+ * }
+ * </code></pre>
+ * Errors are thrown as a {@link SynchronousHttpException} whose
+ * {@link SynchronousHttpException#errorBody(Class)} decodes the body with the Retrofit converter
+ * for {@link #value()} the first time it is called. At most {@link #maxBytes()} of the body are
+ * kept; larger bodies are not decoded.
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface ErrorBody {
+  /** Type the error body is decoded to. */
+  Class<?> value();
+
+  /** Largest error body, in bytes, that is kept and decoded. */
+  long maxBytes() default 64 * 1024;
+}
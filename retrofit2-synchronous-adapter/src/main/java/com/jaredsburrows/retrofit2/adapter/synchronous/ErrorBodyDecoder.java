@@ -0,0 +1,60 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import javax.annotation.Nullable;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ByteString;
+import retrofit2.Converter;
+import retrofit2.Response;
+
+/** Caps and decodes error bodies as declared by {@link ErrorBody}. */
+final class ErrorBodyDecoder {
+  private final Converter<ResponseBody, ?> converter;
+  private final long maxBytes;
+
+  private ErrorBodyDecoder(Converter<ResponseBody, ?> converter, long maxBytes) {
+    this.converter = converter;
+    this.maxBytes = maxBytes;
+  }
+
+  static ErrorBodyDecoder create(ErrorBody errorBody, Converter<ResponseBody, ?> converter) {
+    if (errorBody.maxBytes() < 0 || errorBody.maxBytes() == Long.MAX_VALUE) {
+      throw new IllegalStateException("@ErrorBody maxBytes must be between 0 and Long.MAX_VALUE");
+    }
+    return new ErrorBodyDecoder(converter, errorBody.maxBytes());
+  }
+
+  /**
+   * Returns the exception for the error {@code response}. Its body is replaced with its first
+   * {@code maxBytes} so that the exception never holds on to a large body.
+   */
+  SynchronousHttpException exception(Response<?> response, boolean stackTrace) {
+    ResponseBody errorBody = response.errorBody();
+    if (errorBody == null) {
+      return new SynchronousHttpException(response, stackTrace);
+    }
+
+    MediaType contentType = errorBody.contentType();
+    ByteString bytes;
+    boolean truncated;
+    try (BufferedSource source = errorBody.source()) {
+      truncated = source.request(maxBytes + 1);
+      Buffer capped = new Buffer();
+      source.read(capped, maxBytes);
+      bytes = capped.readByteString();
+    } catch (IOException e) {
+      return new SynchronousHttpException(response, stackTrace);
+    }
+
+    Response<?> capped = Response.error(ResponseBody.create(bytes, contentType), response.raw());
+    return new SynchronousHttpException(capped, truncated ? null : this, bytes, contentType,
+      stackTrace);
+  }
+
+  @Nullable Object decode(ByteString bytes, @Nullable MediaType contentType) throws IOException {
+    return converter.convert(ResponseBody.create(bytes, contentType));
+  }
+}
@@ -0,0 +1,58 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import javax.annotation.Nullable;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Creates the exceptions thrown by synchronous calls. Filling in a stack trace is most of the cost
+ * of creating an exception, {@link #STACKLESS} skips it for services that fail at high rates.
+ */
+final class Exceptions {
+  static final Exceptions DEFAULT = new Exceptions(true);
+  static final Exceptions STACKLESS = new Exceptions(false);
+
+  private final boolean stackTraces;
+
+  private Exceptions(boolean stackTraces) {
+    this.stackTraces = stackTraces;
+  }
+
+  /** Classifies the failure of {@code call}, which is null if it is not known. */
+  SynchronousCallException failure(@Nullable Call<?> call, IOException e) {
+    // Thread interruption is also reported as InterruptedIOException, it is not a timeout
+    if (Thread.currentThread().isInterrupted()) {
+      return new SynchronousCanceledException(e, stackTraces);
+    }
+    // Timeouts cancel the call as well
+    if (e instanceof InterruptedIOException) {
+      return new SynchronousTimeoutException((InterruptedIOException) e, stackTraces);
+    }
+    if (call != null && call.isCanceled()) {
+      return new SynchronousCanceledException(e, stackTraces);
+    }
+    return new SynchronousNetworkException(e, stackTraces);
+  }
+
+  /** Returns the exception for the non-2XX {@code response}. */
+  SynchronousHttpException http(Response<?> response, @Nullable ErrorBodyDecoder decoder) {
+    if (decoder != null) {
+      return decoder.exception(response, stackTraces);
+    }
+    return new SynchronousHttpException(response, stackTraces);
+  }
+
+  CircuitBreakerOpenException circuitBreakerOpen(String message) {
+    return new CircuitBreakerOpenException(message, stackTraces);
+  }
+
+  ConcurrencyLimitException concurrencyLimit(String message) {
+    return new ConcurrencyLimitException(message, stackTraces);
+  }
+
+  RateLimitException rateLimit(String message) {
+    return new RateLimitException(message, stackTraces);
+  }
+}
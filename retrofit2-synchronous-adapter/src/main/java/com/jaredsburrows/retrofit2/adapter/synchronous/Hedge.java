@@ -0,0 +1,48 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends a second, hedged, copy of the call when the first one has not completed in time:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;Hedge(delay = 50)
+ *   &#64;GET("user/me")
+ *   User getUser()
+ * }
+ * </code></pre>
+ * The first successful response wins and the other call is canceled. When neither succeeds, the
+ * outcome of the original call is used. The hedge takes its own {@link ConcurrencyLimit} slot and
+ * {@link RateLimit} permit, and is dropped when the limiters reject it.
+ * <p>
+ * Only {@code GET} and {@code HEAD} requests may be hedged.
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Hedge {
+  /** Time to wait for the original call before hedging it. */
+  long delay() default 100;
+
+  /** Unit of {@link #delay()}. */
+  TimeUnit unit() default MILLISECONDS;
+
+  /**
+   * When greater than 0, the delay is the observed latency of this method at the given percentile,
+   * for example {@code 95.0}. {@link #delay()} is used until enough calls have been observed.
+   */
+  double percentile() default 0.0;
+
+  /**
+   * Fraction of calls, between 0 and 1, that may be hedged. Keeps hedging from doubling the load
+   * on a dependency that is slow for every call.
+   */
+  double budget() default 0.1;
+}
@@ -0,0 +1,268 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.Nullable;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * {@link CallExecutor} that applies a {@link Hedge} policy. The original call runs on the caller's
+ * thread; the hedged clone is started on {@link DefaultExecutors#io()} once the delay elapses.
+ */
+final class HedgingCallExecutor implements CallExecutor {
+  /** Number of latency samples the percentile is computed from. */
+  private static final int SAMPLES = 128;
+  /** Number of recorded samples between two computations of the percentile. */
+  private static final int RECOMPUTE_INTERVAL = 32;
+  /** Maximum number of hedges that can be saved up while the budget is not used. */
+  private static final long MAX_TOKENS = 10_000L;
+  private static final long TOKEN = 1_000L;
+
+  private final CallExecutor delegate;
+  private final ScheduledExecutorService scheduler;
+  private final Executor executor;
+  private final long delayNanos;
+  private final double percentile;
+  private final long tokensPerCall;
+  /** Hedge budget in thousandths of a hedge. */
+  private final AtomicLong tokens;
+  private final AtomicLongArray samples = new AtomicLongArray(SAMPLES);
+  private final AtomicLong sampleCount = new AtomicLong();
+  private volatile long percentileNanos = -1L;
+
+  private HedgingCallExecutor(CallExecutor delegate, Hedge hedge,
+    ScheduledExecutorService scheduler, Executor executor) {
+    this.delegate = delegate;
+    this.scheduler = scheduler;
+    this.executor = executor;
+    this.delayNanos = hedge.unit().toNanos(hedge.delay());
+    this.percentile = hedge.percentile();
+    this.tokensPerCall = (long) (hedge.budget() * TOKEN);
+    this.tokens = new AtomicLong(tokensPerCall > 0L ? MAX_TOKENS : 0L);
+  }
+
+  static CallExecutor create(CallExecutor delegate, Hedge hedge, @Nullable String httpMethod) {
+    if (!"GET".equals(httpMethod) && !"HEAD".equals(httpMethod)) {
+      throw new IllegalStateException("@Hedge is only supported on GET and HEAD requests");
+    }
+    if (hedge.delay() < 0) {
+      throw new IllegalStateException("@Hedge delay must not be negative");
+    }
+    if (hedge.percentile() < 0.0 || hedge.percentile() >= 100.0) {
+      throw new IllegalStateException("@Hedge percentile must be between 0.0 and 100.0");
+    }
+    if (hedge.budget() < 0.0 || hedge.budget() > 1.0) {
+      throw new IllegalStateException("@Hedge budget must be between 0.0 and 1.0");
+    }
+    return new HedgingCallExecutor(delegate, hedge, DefaultExecutors.scheduler(),
+      DefaultExecutors.io());
+  }
+
+  @Override public <R> Response<R> execute(Call<R> call) throws IOException {
+    depositToken();
+    long start = System.nanoTime();
+    Race<R> race = new Race<>(call);
+    ScheduledFuture<?> timer;
+    try {
+      timer = scheduler.schedule(race, currentDelayNanos(), TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException e) {
+      return delegate.execute(call);
+    }
+
+    Response<R> response = null;
+    IOException failure = null;
+    RuntimeException runtimeFailure = null;
+    try {
+      response = delegate.execute(call);
+    } catch (IOException e) {
+      failure = e;
+    } catch (RuntimeException e) {
+      // Such as a limiter rejecting the original call, which a hedge may still make up for
+      runtimeFailure = e;
+    }
+    timer.cancel(false);
+
+    Response<R> result = race.settle(response);
+    if (result == null) {
+      if (failure != null) {
+        throw failure;
+      }
+      if (runtimeFailure != null) {
+        throw runtimeFailure;
+      }
+      result = response;
+    }
+    record(System.nanoTime() - start);
+    return result;
+  }
+
+  private void depositToken() {
+    if (tokensPerCall == 0L) {
+      return;
+    }
+    long current;
+    do {
+      current = tokens.get();
+      if (current >= MAX_TOKENS) {
+        return;
+      }
+    } while (!tokens.compareAndSet(current, Math.min(MAX_TOKENS, current + tokensPerCall)));
+  }
+
+  private boolean tryWithdrawToken() {
+    long current;
+    do {
+      current = tokens.get();
+      if (current < TOKEN) {
+        return false;
+      }
+    } while (!tokens.compareAndSet(current, current - TOKEN));
+    return true;
+  }
+
+  private long currentDelayNanos() {
+    long observed = percentileNanos;
+    return percentile > 0.0 && observed >= 0L ? observed : delayNanos;
+  }
+
+  private void record(long latencyNanos) {
+    if (percentile == 0.0) {
+      return;
+    }
+    long count = sampleCount.getAndIncrement();
+    samples.set((int) (count & (SAMPLES - 1)), latencyNanos);
+    if (count + 1 >= SAMPLES && (count + 1) % RECOMPUTE_INTERVAL == 0) {
+      long[] sorted = new long[SAMPLES];
+      for (int i = 0; i < SAMPLES; i++) {
+        sorted[i] = samples.get(i);
+      }
+      Arrays.sort(sorted);
+      int index = (int) Math.ceil(percentile / 100.0 * SAMPLES) - 1;
+      percentileNanos = sorted[Math.max(0, Math.min(SAMPLES - 1, index))];
+    }
+  }
+
+  private static void closeQuietly(@Nullable Response<?> response) {
+    if (response == null) {
+      return;
+    }
+    ResponseBody errorBody = response.errorBody();
+    if (errorBody != null) {
+      errorBody.close();
+    }
+    Object body = response.body();
+    if (body instanceof ResponseBody) {
+      ((ResponseBody) body).close();
+    }
+  }
+
+  /** Races the original call against its hedge, started by the timer running this task. */
+  private final class Race<R> implements Runnable {
+    private static final int PENDING = 0;
+    private static final int HEDGING = 1;
+    private static final int SETTLED = 2;
+
+    private final Call<R> original;
+    // Deadline of the caller's thread, which the hedge runs under
+    private final @Nullable Deadline deadline = Deadline.current();
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+    private final AtomicBoolean won = new AtomicBoolean();
+    private final CountDownLatch hedgeDone = new CountDownLatch(1);
+    private volatile @Nullable Call<R> hedge;
+    private volatile @Nullable Response<R> hedgeResponse;
+
+    Race(Call<R> original) {
+      this.original = original;
+    }
+
+    /** Starts the hedge, if the original call is still running and the budget allows it. */
+    @Override public void run() {
+      if (!state.compareAndSet(PENDING, HEDGING)) {
+        return;
+      }
+      if (!tryWithdrawToken()) {
+        hedgeDone.countDown();
+        return;
+      }
+      try {
+        executor.execute(Deadline.wrap(deadline, this::executeHedge));
+      } catch (RejectedExecutionException e) {
+        hedgeDone.countDown();
+      }
+    }
+
+    private void executeHedge() {
+      try {
+        Call<R> hedge = original.clone();
+        this.hedge = hedge;
+        if (won.get()) {
+          return; // The original call won while the hedge was being created
+        }
+        Response<R> response = delegate.execute(hedge);
+        if (response.isSuccessful()) {
+          hedgeResponse = response;
+          if (won.compareAndSet(false, true)) {
+            original.cancel();
+            return;
+          }
+          hedgeResponse = null;
+        }
+        closeQuietly(response);
+      } catch (IOException | RuntimeException ignored) {
+        // The outcome of the original call is reported instead
+      } finally {
+        hedgeDone.countDown();
+      }
+    }
+
+    /**
+     * Called once the original call completed with {@code response}, or null if it failed. Returns
+     * the response the caller should see, or null if the original call's failure applies.
+     */
+    @Nullable Response<R> settle(@Nullable Response<R> response) throws InterruptedIOException {
+      if (state.compareAndSet(PENDING, SETTLED)) {
+        return response; // The hedge never started
+      }
+
+      if (response != null && response.isSuccessful() && won.compareAndSet(false, true)) {
+        Call<R> hedge = this.hedge;
+        if (hedge != null) {
+          hedge.cancel();
+        }
+        return response;
+      }
+
+      try {
+        hedgeDone.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        Call<R> hedge = this.hedge;
+        if (hedge != null) {
+          hedge.cancel();
+        }
+        closeQuietly(response);
+        throw new InterruptedIOException("interrupted while waiting for hedged call");
+      }
+
+      Response<R> hedgeResponse = this.hedgeResponse;
+      if (hedgeResponse != null) {
+        closeQuietly(response);
+        return hedgeResponse;
+      }
+      return response;
+    }
+  }
+}
@@ -0,0 +1,298 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.Nullable;
+import retrofit2.Response;
+
+/**
+ * {@link CallMetricsListener} that records a latency histogram and call counters per service
+ * method:
+ * <pre><code>
+ * HistogramMetricsListener metrics = new HistogramMetricsListener();
+ * ...
+ * for (Map.Entry&lt;MethodDescriptor, Snapshot&gt; entry : metrics.snapshot().entrySet()) {
+ *   log(entry.getKey() + " p99=" + entry.getValue().percentileNanos(99.0));
+ * }
+ * </code></pre>
+ * Recording is lock-free and allocation-free: every thread increments the counters of one of
+ * several stripes, which are only summed when a {@link Snapshot} is taken. Latencies are bucketed
+ * with four buckets per power of two, so percentiles are within 25% of the recorded value.
+ */
+public final class HistogramMetricsListener implements CallMetricsListener {
+  static final int SUB_BUCKET_BITS = 2;
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  // Counters stored after the buckets of each stripe
+  private static final int STARTED = BUCKETS;
+  private static final int SUCCEEDED = BUCKETS + 1;
+  private static final int HTTP_ERRORS = BUCKETS + 2;
+  private static final int IO_EXCEPTIONS = BUCKETS + 3;
+  private static final int FAILURES = BUCKETS + 4;
+  private static final int TOTAL_NANOS = BUCKETS + 5;
+  private static final int MAX_NANOS = BUCKETS + 6;
+  // Pads stripes apart by more than a cache line so threads don't contend on shared lines
+  private static final int STRIDE = BUCKETS + 7 + 16;
+
+  private final ConcurrentMap<MethodDescriptor, Recorder> recorders = new ConcurrentHashMap<>();
+  private final int stripeMask;
+
+  public HistogramMetricsListener() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /** Creates a listener that records into {@code stripes} stripes, rounded up to a power of 2. */
+  public HistogramMetricsListener(int stripes) {
+    if (stripes < 1) {
+      throw new IllegalArgumentException("stripes < 1: " + stripes);
+    }
+    this.stripeMask = Integer.highestOneBit(Math.min(stripes, 1 << 10) * 2 - 1) - 1;
+  }
+
+  @Override public void callStart(MethodDescriptor method) {
+    recorder(method).increment(STARTED);
+  }
+
+  @Override public void responseReceived(MethodDescriptor method, Response<?> response,
+    long durationNanos) {
+    recorder(method).record(SUCCEEDED, durationNanos);
+  }
+
+  @Override public void httpError(MethodDescriptor method, Response<?> response,
+    long durationNanos) {
+    recorder(method).record(HTTP_ERRORS, durationNanos);
+  }
+
+  @Override public void ioException(MethodDescriptor method, IOException e, long durationNanos) {
+    recorder(method).record(IO_EXCEPTIONS, durationNanos);
+  }
+
+  @Override public void failure(MethodDescriptor method, RuntimeException e, long durationNanos) {
+    recorder(method).record(FAILURES, durationNanos);
+  }
+
+  /** Returns a snapshot of the metrics of every service method called so far. */
+  public Map<MethodDescriptor, Snapshot> snapshot() {
+    Map<MethodDescriptor, Snapshot> snapshots = new LinkedHashMap<>();
+    for (Map.Entry<MethodDescriptor, Recorder> entry : recorders.entrySet()) {
+      snapshots.put(entry.getKey(), entry.getValue().snapshot());
+    }
+    return Collections.unmodifiableMap(snapshots);
+  }
+
+  /** Returns a snapshot of the metrics of {@code method}, or null if it was never called. */
+  @Nullable public Snapshot snapshot(MethodDescriptor method) {
+    Recorder recorder = recorders.get(method);
+    return recorder != null ? recorder.snapshot() : null;
+  }
+
+  private Recorder recorder(MethodDescriptor method) {
+    // Avoids computeIfAbsent, which allocates a capturing lambda on every call
+    Recorder recorder = recorders.get(method);
+    if (recorder == null) {
+      Recorder created = new Recorder(stripeMask);
+      recorder = recorders.putIfAbsent(method, created);
+      if (recorder == null) {
+        recorder = created;
+      }
+    }
+    return recorder;
+  }
+
+  /** Returns the histogram bucket of {@code value}, which must not be negative. */
+  static int bucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int magnitude = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /** Returns the smallest value of {@code bucket}. */
+  static long lowestValue(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int magnitude = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    long subBucket = bucket & (SUB_BUCKETS - 1);
+    return (SUB_BUCKETS + subBucket) << (magnitude - SUB_BUCKET_BITS);
+  }
+
+  /** Returns the largest value of {@code bucket}. */
+  static long highestValue(int bucket) {
+    return bucket == BUCKETS - 1 ? Long.MAX_VALUE : lowestValue(bucket + 1) - 1;
+  }
+
+  private static final class Recorder {
+    private final AtomicLongArray stripes;
+    private final int stripeMask;
+
+    Recorder(int stripeMask) {
+      this.stripes = new AtomicLongArray((stripeMask + 1) * STRIDE);
+      this.stripeMask = stripeMask;
+    }
+
+    private int offset() {
+      // Spreads sequential thread ids across stripes
+      long id = Thread.currentThread().getId();
+      return ((int) (id ^ (id >>> 16)) & stripeMask) * STRIDE;
+    }
+
+    void increment(int counter) {
+      stripes.getAndIncrement(offset() + counter);
+    }
+
+    void record(int counter, long durationNanos) {
+      long nanos = Math.max(0L, durationNanos);
+      int offset = offset();
+      stripes.getAndIncrement(offset + counter);
+      stripes.getAndIncrement(offset + bucket(nanos));
+      stripes.getAndAdd(offset + TOTAL_NANOS, nanos);
+      long max;
+      while (nanos > (max = stripes.get(offset + MAX_NANOS))) {
+        if (stripes.compareAndSet(offset + MAX_NANOS, max, nanos)) {
+          break;
+        }
+      }
+    }
+
+    Snapshot snapshot() {
+      long[] counts = new long[BUCKETS];
+      long started = 0;
+      long succeeded = 0;
+      long httpErrors = 0;
+      long ioExceptions = 0;
+      long failures = 0;
+      long totalNanos = 0;
+      long maxNanos = 0;
+      for (int offset = 0; offset < stripes.length(); offset += STRIDE) {
+        for (int i = 0; i < BUCKETS; i++) {
+          counts[i] += stripes.get(offset + i);
+        }
+        started += stripes.get(offset + STARTED);
+        succeeded += stripes.get(offset + SUCCEEDED);
+        httpErrors += stripes.get(offset + HTTP_ERRORS);
+        ioExceptions += stripes.get(offset + IO_EXCEPTIONS);
+        failures += stripes.get(offset + FAILURES);
+        totalNanos += stripes.get(offset + TOTAL_NANOS);
+        maxNanos = Math.max(maxNanos, stripes.get(offset + MAX_NANOS));
+      }
+      return new Snapshot(counts, started, succeeded, httpErrors, ioExceptions, failures,
+        totalNanos, maxNanos);
+    }
+  }
+
+  /**
+   * Metrics of a service method at a point in time. Counters are read without stopping recording
+   * threads, so a snapshot taken during calls may be off by the calls in progress.
+   */
+  public static final class Snapshot {
+    private final long[] counts;
+    private final long started;
+    private final long succeeded;
+    private final long httpErrors;
+    private final long ioExceptions;
+    private final long failures;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    Snapshot(long[] counts, long started, long succeeded, long httpErrors, long ioExceptions,
+      long failures, long totalNanos, long maxNanos) {
+      this.counts = counts;
+      this.started = started;
+      this.succeeded = succeeded;
+      this.httpErrors = httpErrors;
+      this.ioExceptions = ioExceptions;
+      this.failures = failures;
+      this.totalNanos = totalNanos;
+      this.maxNanos = maxNanos;
+    }
+
+    /** Number of calls started. */
+    public long started() {
+      return started;
+    }
+
+    /** Number of calls completed with a 2XX response. */
+    public long succeeded() {
+      return succeeded;
+    }
+
+    /** Number of calls completed with a non-2XX response. */
+    public long httpErrors() {
+      return httpErrors;
+    }
+
+    /** Number of calls failed with a network error or a timeout. */
+    public long ioExceptions() {
+      return ioExceptions;
+    }
+
+    /** Number of calls failed with a runtime exception, such as a converter failure. */
+    public long failures() {
+      return failures;
+    }
+
+    /** Number of calls completed, successfully or not. */
+    public long completed() {
+      return succeeded + httpErrors + ioExceptions + failures;
+    }
+
+    /** Mean duration of completed calls, or 0 if none completed. */
+    public long meanNanos() {
+      long completed = completed();
+      return completed == 0 ? 0 : totalNanos / completed;
+    }
+
+    /** Longest duration of completed calls, or 0 if none completed. */
+    public long maxNanos() {
+      return maxNanos;
+    }
+
+    /**
+     * Returns the duration that {@code percentile} percent of completed calls did not exceed,
+     * rounded up to the end of its histogram bucket, or 0 if none completed.
+     */
+    public long percentileNanos(double percentile) {
+      if (percentile < 0.0 || percentile > 100.0) {
+        throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+      }
+      long total = 0;
+      for (long count : counts) {
+        total += count;
+      }
+      if (total == 0) {
+        return 0;
+      }
+
+      long rank = Math.max(1L, (long) Math.ceil(total * percentile / 100.0));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return Math.min(highestValue(i), maxNanos);
+        }
+      }
+      return maxNanos;
+    }
+
+    @Override public String toString() {
+      return "Snapshot{started=" + started
+        + ", succeeded=" + succeeded
+        + ", httpErrors=" + httpErrors
+        + ", ioExceptions=" + ioExceptions
+        + ", failures=" + failures
+        + ", p50=" + percentileNanos(50.0)
+        + ", p99=" + percentileNanos(99.0)
+        + ", max=" + maxNanos
+        + '}';
+    }
+  }
+}
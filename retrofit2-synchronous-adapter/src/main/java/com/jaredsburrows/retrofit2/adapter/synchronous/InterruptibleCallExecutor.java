@@ -0,0 +1,55 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * {@link CallExecutor} that cancels the call as soon as the calling thread is interrupted, as
+ * enabled by {@link SynchronousCallAdapterFactory.Builder#cancelOnInterrupt(boolean)}.
+ * <p>
+ * Socket reads of platform threads ignore interruption, so their calls are handed off to
+ * {@link DefaultExecutors#io()} while the caller waits interruptibly. Interrupting a virtual thread
+ * already closes its socket, so their calls are executed directly.
+ */
+final class InterruptibleCallExecutor implements CallExecutor {
+  private final CallExecutor delegate;
+
+  InterruptibleCallExecutor(CallExecutor delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override public <R> Response<R> execute(Call<R> call) throws IOException {
+    if (Thread.currentThread().isInterrupted()) {
+      call.cancel();
+      throw new InterruptedIOException("interrupted before the call was executed");
+    }
+    if (VirtualThreads.isVirtual(Thread.currentThread())) {
+      return delegate.execute(call);
+    }
+
+    Future<Response<R>> future = DefaultExecutors.io().submit(() -> delegate.execute(call));
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      // Canceling the call fails its blocked socket read, which frees the connection
+      call.cancel();
+      Thread.currentThread().interrupt();
+      InterruptedIOException exception = new InterruptedIOException("interrupted during call");
+      exception.initCause(e);
+      throw exception;
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw (RuntimeException) cause;
+    }
+  }
+}
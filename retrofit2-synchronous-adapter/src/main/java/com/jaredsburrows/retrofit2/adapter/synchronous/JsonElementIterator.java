@@ -0,0 +1,197 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import javax.annotation.Nullable;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import retrofit2.Call;
+import retrofit2.Converter;
+
+/**
+ * Iterates over the elements of a top-level JSON array, or of newline-delimited JSON, reading
+ * them from the body one at a time. Each element is framed without being parsed and handed to
+ * {@code converter} on its own, so only one element is held in memory. The body is closed when
+ * the last element has been read or when the iterator is closed.
+ */
+final class JsonElementIterator<T> implements Iterator<T>, Closeable {
+  private static final int UNKNOWN = 0;
+  private static final int ARRAY = 1;
+  private static final int LINES = 2;
+  private static final long SEGMENT_SIZE = 8192L;
+
+  private final ResponseBody body;
+  private final BufferedSource source;
+  private final Converter<ResponseBody, T> converter;
+  private final @Nullable MediaType contentType;
+  private final Call<?> call;
+  private final Exceptions exceptions;
+  // Framing is detected from the first byte: '[' for an array, anything else for lines
+  private int framing = UNKNOWN;
+  private @Nullable Buffer next;
+  private boolean closed;
+
+  JsonElementIterator(ResponseBody body, Converter<ResponseBody, T> converter, Call<?> call,
+    Exceptions exceptions) {
+    this.body = body;
+    this.source = body.source();
+    this.converter = converter;
+    this.contentType = body.contentType();
+    this.call = call;
+    this.exceptions = exceptions;
+  }
+
+  @Override public boolean hasNext() {
+    if (next != null) {
+      return true;
+    }
+    if (closed) {
+      return false;
+    }
+    try {
+      next = readElement();
+    } catch (IOException e) {
+      close();
+      throw exceptions.failure(call, e);
+    }
+    if (next == null) {
+      close();
+      return false;
+    }
+    return true;
+  }
+
+  @Override public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    Buffer element = next;
+    next = null;
+    try {
+      return converter.convert(ResponseBody.create(element, contentType, element.size()));
+    } catch (IOException e) {
+      close();
+      throw exceptions.failure(call, e);
+    } catch (RuntimeException e) {
+      close();
+      throw e;
+    }
+  }
+
+  @Override public void close() {
+    if (!closed) {
+      closed = true;
+      body.close();
+    }
+  }
+
+  /** Returns the bytes of the next element, or null if there are no more. */
+  @Nullable private Buffer readElement() throws IOException {
+    if (framing == UNKNOWN) {
+      skipWhitespace();
+      if (source.exhausted()) {
+        return null;
+      }
+      if (source.getBuffer().getByte(0) == '[') {
+        source.skip(1);
+        framing = ARRAY;
+      } else {
+        framing = LINES;
+      }
+    }
+    return framing == ARRAY ? readArrayElement() : readLine();
+  }
+
+  /** Reads up to the comma or bracket that ends the next element of the array. */
+  @Nullable private Buffer readArrayElement() throws IOException {
+    skipWhitespace();
+    if (source.exhausted()) {
+      throw new IOException("Unterminated JSON array");
+    }
+    if (source.getBuffer().getByte(0) == ']') {
+      source.skip(1);
+      return null;
+    }
+
+    Buffer element = new Buffer();
+    int depth = 0;
+    boolean inString = false;
+    boolean escaped = false;
+    // Scans ahead in the source's buffer and moves whole runs of bytes into the element
+    long index = 0L;
+    while (true) {
+      if (index == SEGMENT_SIZE) {
+        source.readFully(element, index);
+        index = 0L;
+      }
+      if (!source.request(index + 1)) {
+        throw new IOException("Unterminated JSON array");
+      }
+      byte b = source.getBuffer().getByte(index);
+      if (inString) {
+        if (escaped) {
+          escaped = false;
+        } else if (b == '\\') {
+          escaped = true;
+        } else if (b == '"') {
+          inString = false;
+        }
+      } else if (b == '"') {
+        inString = true;
+      } else if (b == '{' || b == '[') {
+        depth++;
+      } else if (b == '}' || b == ']') {
+        if (depth == 0) {
+          // The closing bracket is left for the next call to consume
+          source.readFully(element, index);
+          return element;
+        }
+        depth--;
+      } else if (b == ',' && depth == 0) {
+        source.readFully(element, index);
+        source.skip(1);
+        return element;
+      }
+      index++;
+    }
+  }
+
+  /** Reads the next non-empty line. */
+  @Nullable private Buffer readLine() throws IOException {
+    while (!source.exhausted()) {
+      long end = source.indexOf((byte) '\n');
+      long next = end + 1;
+      if (end == -1L) {
+        // The last line has no terminator, so it is fully buffered
+        source.request(Long.MAX_VALUE);
+        end = source.getBuffer().size();
+        next = end;
+      }
+      long length = end;
+      if (length > 0 && source.getBuffer().getByte(length - 1) == '\r') {
+        length--;
+      }
+      Buffer element = new Buffer();
+      source.readFully(element, length);
+      source.skip(next - length);
+      if (element.size() > 0) {
+        return element;
+      }
+    }
+    return null;
+  }
+
+  private void skipWhitespace() throws IOException {
+    while (source.request(1)) {
+      byte b = source.getBuffer().getByte(0);
+      if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+        return;
+      }
+      source.skip(1);
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * {@link CallExecutor} that applies an adaptive {@link ConcurrencyLimit}. Slots are taken with a
+ * compare-and-set; only calls that have to wait for a slot use the lock.
+ */
+final class LimitingCallExecutor implements CallExecutor {
+  private final CallExecutor delegate;
+  private final String name;
+  private final Exceptions exceptions;
+  private final int minLimit;
+  private final int maxLimit;
+  private final double backoffRatio;
+  private final long latencyThresholdNanos;
+  private final long maxWaitNanos;
+  // Bits of the double limit, which grows by fractions of a call
+  private final AtomicLong limit;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger waiters = new AtomicInteger();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition released = lock.newCondition();
+
+  private LimitingCallExecutor(CallExecutor delegate, ConcurrencyLimit limit, String name,
+    Exceptions exceptions) {
+    this.delegate = delegate;
+    this.name = name;
+    this.exceptions = exceptions;
+    this.minLimit = limit.minLimit();
+    this.maxLimit = limit.maxLimit();
+    this.backoffRatio = limit.backoffRatio();
+    this.latencyThresholdNanos = limit.unit().toNanos(limit.latencyThreshold());
+    this.maxWaitNanos = limit.unit().toNanos(limit.maxWait());
+    this.limit = new AtomicLong(Double.doubleToRawLongBits(limit.initialLimit()));
+  }
+
+  static LimitingCallExecutor create(CallExecutor delegate, ConcurrencyLimit limit,
+    MethodDescriptor method, Exceptions exceptions) {
+    if (limit.minLimit() < 1
+      || limit.initialLimit() < limit.minLimit()
+      || limit.maxLimit() < limit.initialLimit()) {
+      throw new IllegalStateException(
+        "@ConcurrencyLimit must satisfy 1 <= minLimit <= initialLimit <= maxLimit");
+    }
+    if (limit.backoffRatio() <= 0.0 || limit.backoffRatio() >= 1.0) {
+      throw new IllegalStateException("@ConcurrencyLimit backoffRatio must be between 0 and 1");
+    }
+    if (limit.latencyThreshold() <= 0 || limit.maxWait() < 0) {
+      throw new IllegalStateException(
+        "@ConcurrencyLimit latencyThreshold must be positive and maxWait not negative");
+    }
+    return new LimitingCallExecutor(delegate, limit, method.toString(), exceptions);
+  }
+
+  @Override public <R> Response<R> execute(Call<R> call) throws IOException {
+    acquire();
+    long start = System.nanoTime();
+    try {
+      Response<R> response = delegate.execute(call);
+      int code = response.code();
+      onSample(code == 429 || code == 503 || System.nanoTime() - start > latencyThresholdNanos);
+      return response;
+    } catch (IOException e) {
+      onSample(true);
+      throw e;
+    } finally {
+      release();
+    }
+  }
+
+  /** Current limit, rounded down. */
+  int limit() {
+    return (int) Double.longBitsToDouble(limit.get());
+  }
+
+  private void acquire() throws InterruptedIOException {
+    // Calls past their deadline don't take a slot
+    long deadlineNanos = Deadline.currentRemainingNanos();
+    if (deadlineNanos <= 0L) {
+      throw new DeadlineExceededException();
+    }
+    if (tryAcquire()) {
+      return;
+    }
+    if (maxWaitNanos == 0) {
+      throw limitReached();
+    }
+
+    waiters.incrementAndGet();
+    lock.lock();
+    try {
+      boolean deadlineFirst = deadlineNanos < maxWaitNanos;
+      long remainingNanos = deadlineFirst ? deadlineNanos : maxWaitNanos;
+      while (!tryAcquire()) {
+        if (remainingNanos <= 0) {
+          if (deadlineFirst) {
+            throw new DeadlineExceededException();
+          }
+          throw limitReached();
+        }
+        remainingNanos = released.awaitNanos(remainingNanos);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted waiting for a concurrency limit slot");
+    } finally {
+      lock.unlock();
+      waiters.decrementAndGet();
+    }
+  }
+
+  private boolean tryAcquire() {
+    for (;;) {
+      int current = inFlight.get();
+      if (current >= limit()) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  private void release() {
+    inFlight.decrementAndGet();
+    // Waiters register before taking the lock, so a release can't be missed
+    if (waiters.get() > 0) {
+      lock.lock();
+      try {
+        released.signal();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private void onSample(boolean dropped) {
+    for (;;) {
+      long bits = limit.get();
+      double current = Double.longBitsToDouble(bits);
+      double next;
+      if (dropped) {
+        next = Math.max(minLimit, current * backoffRatio);
+      } else if (inFlight.get() * 2 >= current) {
+        // Grows by about one after a full limit of successful calls
+        next = Math.min(maxLimit, current + 1.0 / current);
+      } else {
+        return;
+      }
+      if (next == current || limit.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+        return;
+      }
+    }
+  }
+
+  private ConcurrencyLimitException limitReached() {
+    return exceptions.concurrencyLimit(
+      "Concurrency limit of " + limit() + " reached for " + name);
+  }
+}
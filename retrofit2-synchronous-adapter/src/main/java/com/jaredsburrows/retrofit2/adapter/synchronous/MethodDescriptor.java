@@ -0,0 +1,104 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import retrofit2.Invocation;
+
+/**
+ * Describes a service method, as seen by {@link SynchronousCallAdapterFactory}: its HTTP method,
+ * its relative URL template, its return type and the {@link Method} itself. Retrofit does not
+ * pass the {@link Method} to call adapter factories, so it is taken from the {@link Invocation}
+ * of the first call. Descriptors of different service methods are not equal, even when they share
+ * an HTTP method, a URL template and a return type, so they can be used as keys.
+ */
+public final class MethodDescriptor {
+  private final String httpMethod;
+  private final String relativeUrl;
+  private final Type returnType;
+  private final @Nullable Method method;
+
+  MethodDescriptor(String httpMethod, String relativeUrl, Type returnType) {
+    this(httpMethod, relativeUrl, returnType, null);
+  }
+
+  private MethodDescriptor(String httpMethod, String relativeUrl, Type returnType,
+    @Nullable Method method) {
+    this.httpMethod = httpMethod;
+    this.relativeUrl = relativeUrl;
+    this.returnType = returnType;
+    this.method = method;
+  }
+
+  static MethodDescriptor create(Type returnType, Annotation[] annotations) {
+    String httpMethod = Utils.httpMethod(annotations);
+    return new MethodDescriptor(httpMethod != null ? httpMethod : "UNKNOWN",
+      Utils.relativeUrl(annotations), returnType);
+  }
+
+  /** Returns a copy of this descriptor for the service method {@code method}. */
+  MethodDescriptor withMethod(Method method) {
+    return new MethodDescriptor(httpMethod, relativeUrl, returnType, method);
+  }
+
+  /** The HTTP method, such as {@code GET}. */
+  public String httpMethod() {
+    return httpMethod;
+  }
+
+  /**
+   * The relative URL template, such as {@code user/{id}}. Empty for methods using
+   * {@link retrofit2.http.Url}.
+   */
+  public String relativeUrl() {
+    return relativeUrl;
+  }
+
+  /** The generic return type of the service method. */
+  public Type returnType() {
+    return returnType;
+  }
+
+  /** The service method, or null for calls made without a Retrofit {@link Invocation}. */
+  @Nullable public Method method() {
+    return method;
+  }
+
+  /**
+   * The name of the service method, such as {@code com.example.UserService.getUser}, to tag
+   * metrics with. Falls back to {@link #toString()} when the service method is not known.
+   */
+  public String name() {
+    return method != null
+      ? method.getDeclaringClass().getName() + "." + method.getName()
+      : toString();
+  }
+
+  @Override public boolean equals(@Nullable Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof MethodDescriptor)) {
+      return false;
+    }
+    MethodDescriptor that = (MethodDescriptor) other;
+    return httpMethod.equals(that.httpMethod)
+      && relativeUrl.equals(that.relativeUrl)
+      && returnType.equals(that.returnType)
+      && Objects.equals(method, that.method);
+  }
+
+  @Override public int hashCode() {
+    int result = httpMethod.hashCode();
+    result = 31 * result + relativeUrl.hashCode();
+    result = 31 * result + returnType.hashCode();
+    result = 31 * result + Objects.hashCode(method);
+    return result;
+  }
+
+  @Override public String toString() {
+    return httpMethod + " " + relativeUrl;
+  }
+}
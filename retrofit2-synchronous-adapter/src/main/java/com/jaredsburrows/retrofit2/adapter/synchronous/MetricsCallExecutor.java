@@ -0,0 +1,64 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import javax.annotation.Nullable;
+import retrofit2.Call;
+import retrofit2.Invocation;
+import retrofit2.Response;
+
+/** {@link CallExecutor} that reports every call to a {@link CallMetricsListener}. */
+final class MetricsCallExecutor implements CallExecutor {
+  private final CallExecutor delegate;
+  private final CallMetricsListener listener;
+  private final MethodDescriptor template;
+  // The descriptor with the service method, taken from the first call
+  private volatile @Nullable MethodDescriptor resolved;
+
+  MetricsCallExecutor(CallExecutor delegate, CallMetricsListener listener,
+    MethodDescriptor template) {
+    this.delegate = delegate;
+    this.listener = listener;
+    this.template = template;
+  }
+
+  @Override public <R> Response<R> execute(Call<R> call) throws IOException {
+    MethodDescriptor method = method(call);
+    listener.callStart(method);
+    long start = System.nanoTime();
+    Response<R> response;
+    try {
+      response = delegate.execute(call);
+    } catch (IOException e) {
+      listener.ioException(method, e, System.nanoTime() - start);
+      throw e;
+    } catch (RuntimeException e) {
+      listener.failure(method, e, System.nanoTime() - start);
+      throw e;
+    }
+
+    long durationNanos = System.nanoTime() - start;
+    if (response.isSuccessful()) {
+      listener.responseReceived(method, response, durationNanos);
+    } else {
+      listener.httpError(method, response, durationNanos);
+    }
+    return response;
+  }
+
+  private MethodDescriptor method(Call<?> call) {
+    MethodDescriptor method = resolved;
+    if (method != null) {
+      return method;
+    }
+    // Every call of this executor is made by the same service method
+    Invocation invocation;
+    try {
+      invocation = call.request().tag(Invocation.class);
+    } catch (RuntimeException e) {
+      return template; // The request could not be created, the call fails when executed
+    }
+    method = invocation != null ? template.withMethod(invocation.method()) : template;
+    resolved = method;
+    return method;
+  }
+}
@@ -0,0 +1,30 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the status codes for which a service method returning {@link java.util.Optional}
+ * returns {@link java.util.Optional#empty()} instead of throwing a
+ * {@link SynchronousHttpException}:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;NotFoundAsEmpty({404, 410})
+ *   &#64;GET("user/{id}")
+ *   Optional&lt;User&gt; getUser(@Path("id") String id)
+ * }
+ * </code></pre>
+ * Without this annotation, {@code Optional} return types are empty for 404 responses only. No
+ * exception is created for these responses.
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface NotFoundAsEmpty {
+  /** Non-2XX status codes that return an empty {@link java.util.Optional}. */
+  int[] value() default {404};
+}
@@ -0,0 +1,30 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Returns null instead of throwing a {@link SynchronousHttpException} for responses with one of
+ * the status codes in {@link #value()}:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;NotFoundAsNull
+ *   &#64;GET("user/{id}")
+ *   &#64;Nullable User getUser(@Path("id") String id)
+ * }
+ * </code></pre>
+ * No exception is created for these responses, which makes lookups that often miss cheaper. Use
+ * an {@link java.util.Optional} return type, and {@link NotFoundAsEmpty}, to make the miss part
+ * of the type instead.
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface NotFoundAsNull {
+  /** Non-2XX status codes that return null. */
+  int[] value() default {404};
+}
@@ -0,0 +1,75 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * {@link Call} for a request that Retrofit did not create, such as a page after the first of a
+ * {@link Paginated} method or the revalidation of a {@link Cacheable} body. Its body is read into
+ * memory, as Retrofit does for non-streaming methods, so that it can be fetched in the
+ * background.
+ */
+final class PageCall implements Call<ResponseBody> {
+  private final okhttp3.Call.Factory callFactory;
+  private final okhttp3.Call rawCall;
+
+  PageCall(okhttp3.Call.Factory callFactory, Request request) {
+    this.callFactory = callFactory;
+    this.rawCall = callFactory.newCall(request);
+  }
+
+  @Override public Response<ResponseBody> execute() throws IOException {
+    try (okhttp3.Response raw = rawCall.execute()) {
+      ResponseBody body = raw.body();
+      MediaType contentType = body != null ? body.contentType() : null;
+      Buffer buffer = new Buffer();
+      if (body != null) {
+        try (BufferedSource source = body.source()) {
+          source.readAll(buffer);
+        }
+      }
+      ResponseBody buffered = ResponseBody.create(buffer, contentType, buffer.size());
+      okhttp3.Response stripped = raw.newBuilder()
+        .body(ResponseBody.create(new Buffer(), contentType, 0L))
+        .build();
+      return raw.isSuccessful()
+        ? Response.success(buffered, stripped)
+        : Response.error(buffered, stripped);
+    }
+  }
+
+  @Override public void enqueue(Callback<ResponseBody> callback) {
+    throw new UnsupportedOperationException("Pages are executed synchronously");
+  }
+
+  @Override public boolean isExecuted() {
+    return rawCall.isExecuted();
+  }
+
+  @Override public void cancel() {
+    rawCall.cancel();
+  }
+
+  @Override public boolean isCanceled() {
+    return rawCall.isCanceled();
+  }
+
+  @Override public PageCall clone() {
+    return new PageCall(callFactory, rawCall.request());
+  }
+
+  @Override public Request request() {
+    return rawCall.request();
+  }
+
+  @Override public okio.Timeout timeout() {
+    return rawCall.timeout();
+  }
+}
@@ -0,0 +1,57 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Returns the elements of every page of a listing as one lazy {@link Iterable}, following
+ * {@code Link: <...>; rel="next"} headers:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;Paginated
+ *   &#64;GET("users")
+ *   Iterable&lt;User&gt; getUsers()
+ * }
+ * </code></pre>
+ * or a cursor field of the {@link #page()} type, which is sent back in the
+ * {@link #cursorParameter()} query parameter:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;Paginated(page = UserPage.class, items = "users", cursor = "nextCursor")
+ *   &#64;GET("users")
+ *   Iterable&lt;User&gt; getUsers()
+ * }
+ * </code></pre>
+ * The first page is fetched by the service method. The next page is fetched, with the same
+ * policies, when the elements of the current page run out or, if {@link #prefetch()} is set, on a
+ * background thread while the current page is consumed. The returned iterable can only be
+ * iterated once and implements {@link java.io.Closeable} to stop fetching early.
+ * <p>
+ * Only {@code GET} requests may be paginated.
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Paginated {
+  /** Type each page is decoded to, or {@code void.class} if each page is a JSON array. */
+  Class<?> page() default void.class;
+
+  /** Name of the {@link Iterable} field of {@link #page()} holding the elements of a page. */
+  String items() default "items";
+
+  /**
+   * Name of the field of {@link #page()} holding the cursor of the next page, or empty to follow
+   * {@code Link} headers. A null or empty cursor ends the listing.
+   */
+  String cursor() default "";
+
+  /** Query parameter the cursor of the next page is sent in. */
+  String cursorParameter() default "cursor";
+
+  /** Whether the next page is fetched in the background while the current one is consumed. */
+  boolean prefetch() default true;
+}
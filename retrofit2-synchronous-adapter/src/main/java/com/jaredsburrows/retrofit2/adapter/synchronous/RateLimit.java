@@ -0,0 +1,51 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Paces the calls of a service method to a rate the server accepts:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;RateLimit(permitsPerSecond = 10, burst = 5)
+ *   &#64;GET("user/me")
+ *   User getUser()
+ * }
+ * </code></pre>
+ * Up to {@link #burst()} calls are executed immediately; past that, calls are spaced by
+ * {@code 1 / permitsPerSecond}. Calls over the rate block the calling thread until their turn,
+ * or fail with a {@link RateLimitException} if {@link #failFast()} is set. A call whose
+ * {@link Deadline} passes before its turn throws {@link SynchronousTimeoutException} at once,
+ * without using a permit. Each {@link Retry} attempt and {@link Hedge} takes its own permit.
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface RateLimit {
+  /** Sustained number of calls per second. */
+  double permitsPerSecond();
+
+  /** Number of calls that can be executed back to back after a quiet period. */
+  int burst() default 1;
+
+  /** Whether calls over the rate fail instead of waiting for a permit. */
+  boolean failFast() default false;
+
+  /** Whether the rate is shared by every call of the method or by every call to a host. */
+  Scope scope() default Scope.METHOD;
+
+  /** What a rate is shared by. */
+  enum Scope {
+    /** One rate per service method. */
+    METHOD,
+    /**
+     * One rate per host, shared by every service method created by the same
+     * {@link SynchronousCallAdapterFactory} with an equal {@link RateLimit}.
+     */
+    HOST
+  }
+}
@@ -0,0 +1,10 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+/** Thrown instead of executing a call over its {@link RateLimit} when it is set to fail fast. */
+public final class RateLimitException extends SynchronousCallException {
+  private static final long serialVersionUID = 1L;
+
+  RateLimitException(String message, boolean stackTrace) {
+    super(message, null, stackTrace);
+  }
+}
@@ -0,0 +1,81 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/** {@link CallExecutor} that applies a {@link RateLimit} policy. */
+final class RateLimitingCallExecutor implements CallExecutor {
+  private final CallExecutor delegate;
+  private final RateLimit rateLimit;
+  // Bucket of the method, or null if buckets are shared per host
+  @Nullable private final TokenBucket methodBucket;
+  @Nullable private final ConcurrentMap<String, TokenBucket> hostBuckets;
+  private final Exceptions exceptions;
+
+  private RateLimitingCallExecutor(CallExecutor delegate, RateLimit rateLimit,
+    @Nullable TokenBucket methodBucket, @Nullable ConcurrentMap<String, TokenBucket> hostBuckets,
+    Exceptions exceptions) {
+    this.delegate = delegate;
+    this.exceptions = exceptions;
+    this.rateLimit = rateLimit;
+    this.methodBucket = methodBucket;
+    this.hostBuckets = hostBuckets;
+  }
+
+  /**
+   * Creates an executor whose bucket is keyed by {@code method} or, for {@link
+   * RateLimit.Scope#HOST}, by host in {@code hostBuckets}, which is shared by every method of the
+   * factory.
+   */
+  static CallExecutor create(CallExecutor delegate, RateLimit rateLimit, MethodDescriptor method,
+    ConcurrentMap<RateLimit, ConcurrentMap<String, TokenBucket>> hostBuckets,
+    Exceptions exceptions) {
+    if (!(rateLimit.permitsPerSecond() > 0.0)) {
+      throw new IllegalStateException("@RateLimit permitsPerSecond must be positive");
+    }
+    if (rateLimit.burst() < 1) {
+      throw new IllegalStateException("@RateLimit burst must be at least 1");
+    }
+
+    if (rateLimit.scope() == RateLimit.Scope.HOST) {
+      ConcurrentMap<String, TokenBucket> buckets = hostBuckets.get(rateLimit);
+      if (buckets == null) {
+        ConcurrentMap<String, TokenBucket> created = new ConcurrentHashMap<>();
+        buckets = hostBuckets.putIfAbsent(rateLimit, created);
+        if (buckets == null) {
+          buckets = created;
+        }
+      }
+      return new RateLimitingCallExecutor(delegate, rateLimit, null, buckets, exceptions);
+    }
+    return new RateLimitingCallExecutor(delegate, rateLimit,
+      new TokenBucket(method.toString(), rateLimit), null, exceptions);
+  }
+
+  @Override public <R> Response<R> execute(Call<R> call) throws IOException {
+    bucket(call).acquire(rateLimit.failFast(), exceptions);
+    return delegate.execute(call);
+  }
+
+  private TokenBucket bucket(Call<?> call) {
+    if (methodBucket != null) {
+      return methodBucket;
+    }
+
+    String host = call.request().url().host();
+    ConcurrentMap<String, TokenBucket> buckets = hostBuckets;
+    TokenBucket bucket = buckets.get(host);
+    if (bucket == null) {
+      TokenBucket created = new TokenBucket(host, rateLimit);
+      bucket = buckets.putIfAbsent(host, created);
+      if (bucket == null) {
+        bucket = created;
+      }
+    }
+    return bucket;
+  }
+}
@@ -0,0 +1,74 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import javax.annotation.Nullable;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+import retrofit2.Invocation;
+
+/**
+ * {@link Interceptor} that gzip-compresses the request bodies of {@link CompressRequest} methods,
+ * found through the {@link Invocation} tag of their requests. Bodies are compressed while they are
+ * written to the connection, so they are never buffered, and are sent with chunked encoding.
+ */
+final class RequestCompressionInterceptor implements Interceptor {
+  static final RequestCompressionInterceptor INSTANCE = new RequestCompressionInterceptor();
+
+  private RequestCompressionInterceptor() {
+  }
+
+  @Override public okhttp3.Response intercept(Chain chain) throws IOException {
+    Request request = chain.request();
+    RequestBody body = request.body();
+    Invocation invocation = request.tag(Invocation.class);
+    if (body == null || invocation == null || request.header("Content-Encoding") != null) {
+      return chain.proceed(request);
+    }
+    CompressRequest compress = invocation.method().getAnnotation(CompressRequest.class);
+    if (compress == null) {
+      return chain.proceed(request);
+    }
+    long contentLength = body.contentLength();
+    if (contentLength != -1L && contentLength < compress.minBytes()) {
+      return chain.proceed(request);
+    }
+
+    return chain.proceed(request.newBuilder()
+      .header("Content-Encoding", "gzip")
+      .method(request.method(), new GzipRequestBody(body))
+      .build());
+  }
+
+  /** Writes {@code delegate} through a {@link GzipSink}. */
+  static final class GzipRequestBody extends RequestBody {
+    private final RequestBody delegate;
+
+    GzipRequestBody(RequestBody delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override @Nullable public MediaType contentType() {
+      return delegate.contentType();
+    }
+
+    @Override public long contentLength() {
+      return -1L; // Unknown until compressed
+    }
+
+    @Override public boolean isOneShot() {
+      return delegate.isOneShot();
+    }
+
+    @Override public void writeTo(BufferedSink sink) throws IOException {
+      BufferedSink gzip = Okio.buffer(new GzipSink(sink));
+      delegate.writeTo(gzip);
+      // Writes the gzip trailer and ends the request body, as OkHttp would once this returns
+      gzip.close();
+    }
+  }
+}
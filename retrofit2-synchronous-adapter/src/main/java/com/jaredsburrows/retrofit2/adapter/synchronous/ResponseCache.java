@@ -0,0 +1,184 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import okhttp3.CacheControl;
+import okhttp3.Headers;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Converter;
+import retrofit2.Response;
+
+/** In-memory cache of deserialized bodies, as declared by {@link Cacheable}. */
+final class ResponseCache<R> {
+  private final CallExecutor executor;
+  private final okhttp3.Call.Factory callFactory;
+  private final Converter<ResponseBody, R> converter;
+  private final long ttlNanos;
+  private final String[] headers;
+  private final @Nullable int[] absentCodes;
+  private final @Nullable ErrorBodyDecoder errorBodyDecoder;
+  private final Exceptions exceptions;
+  private final Map<String, Entry> entries;
+
+  private ResponseCache(CallExecutor executor, okhttp3.Call.Factory callFactory,
+    Converter<ResponseBody, R> converter, long ttlNanos, int maxEntries, String[] headers,
+    @Nullable int[] absentCodes, @Nullable ErrorBodyDecoder errorBodyDecoder,
+    Exceptions exceptions) {
+    this.executor = executor;
+    this.callFactory = callFactory;
+    this.converter = converter;
+    this.ttlNanos = ttlNanos;
+    this.headers = headers;
+    this.absentCodes = absentCodes;
+    this.errorBodyDecoder = errorBodyDecoder;
+    this.exceptions = exceptions;
+    this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  static <R> ResponseCache<R> create(Cacheable cacheable, @Nullable String httpMethod,
+    CallExecutor executor, okhttp3.Call.Factory callFactory,
+    Converter<ResponseBody, R> converter, @Nullable int[] absentCodes,
+    @Nullable ErrorBodyDecoder errorBodyDecoder, Exceptions exceptions) {
+    if (!"GET".equals(httpMethod)) {
+      throw new IllegalStateException("@Cacheable is only supported on GET requests");
+    }
+    if (cacheable.ttl() < 0) {
+      throw new IllegalStateException("@Cacheable ttl must not be negative");
+    }
+    if (cacheable.maxEntries() < 1) {
+      throw new IllegalStateException("@Cacheable maxEntries must be at least 1");
+    }
+    return new ResponseCache<>(executor, callFactory, converter,
+      cacheable.unit().toNanos(cacheable.ttl()), cacheable.maxEntries(),
+      cacheable.headers().clone(), absentCodes, errorBodyDecoder, exceptions);
+  }
+
+  /** Returns the cached body for {@code call}, executing or revalidating it when needed. */
+  @Nullable Object get(Call<R> call) {
+    Request request = call.request();
+    String key = Utils.requestKey(request, headers);
+    Entry entry = lookup(key);
+    if (entry != null && entry.isFresh(System.nanoTime())) {
+      return entry.value;
+    }
+
+    if (entry != null && entry.hasValidators()) {
+      try {
+        return revalidate(key, request, entry);
+      } catch (IOException e) {
+        throw exceptions.failure(call, e);
+      }
+    }
+
+    Response<R> response;
+    try {
+      response = executor.execute(call);
+    } catch (IOException e) {
+      throw exceptions.failure(call, e);
+    }
+    if (!response.isSuccessful()) {
+      // Missing resources are not cached
+      if (SynchronousBodyCallAdapter.isAbsent(absentCodes, response.code())) {
+        return null;
+      }
+      throw exceptions.http(response, errorBodyDecoder);
+    }
+    R value = response.body();
+    store(key, value, response.headers());
+    return value;
+  }
+
+  @Nullable private Object revalidate(String key, Request request, Entry entry)
+    throws IOException {
+    Request.Builder conditional = request.newBuilder();
+    if (entry.etag != null) {
+      conditional.header("If-None-Match", entry.etag);
+    }
+    if (entry.lastModified != null) {
+      conditional.header("If-Modified-Since", entry.lastModified);
+    }
+
+    // Sent through the executor so that the policies and the Deadline of the method apply
+    Response<ResponseBody> response =
+      executor.execute(new PageCall(callFactory, conditional.build()));
+    if (response.code() == 304) {
+      store(key, entry.value, entry.etag, entry.lastModified);
+      return entry.value;
+    }
+    if (!response.isSuccessful()) {
+      if (SynchronousBodyCallAdapter.isAbsent(absentCodes, response.code())) {
+        remove(key);
+        return null;
+      }
+      throw exceptions.http(response, errorBodyDecoder);
+    }
+
+    ResponseBody body = response.body();
+    R value = body == null || response.code() == 204 || response.code() == 205
+      ? null
+      : converter.convert(body);
+    store(key, value, response.headers());
+    return value;
+  }
+
+  @Nullable private Entry lookup(String key) {
+    synchronized (entries) {
+      return entries.get(key);
+    }
+  }
+
+  private void store(String key, @Nullable Object value, Headers responseHeaders) {
+    if (CacheControl.parse(responseHeaders).noStore()) {
+      remove(key);
+      return;
+    }
+    store(key, value, responseHeaders.get("ETag"), responseHeaders.get("Last-Modified"));
+  }
+
+  private void remove(String key) {
+    synchronized (entries) {
+      entries.remove(key);
+    }
+  }
+
+  private void store(String key, @Nullable Object value, @Nullable String etag,
+    @Nullable String lastModified) {
+    Entry entry = new Entry(value, System.nanoTime() + ttlNanos, etag, lastModified);
+    synchronized (entries) {
+      entries.put(key, entry);
+    }
+  }
+
+  private static final class Entry {
+    final @Nullable Object value;
+    final long expiresAtNanos;
+    final @Nullable String etag;
+    final @Nullable String lastModified;
+
+    Entry(@Nullable Object value, long expiresAtNanos, @Nullable String etag,
+      @Nullable String lastModified) {
+      this.value = value;
+      this.expiresAtNanos = expiresAtNanos;
+      this.etag = etag;
+      this.lastModified = lastModified;
+    }
+
+    boolean isFresh(long nowNanos) {
+      return nowNanos - expiresAtNanos < 0L;
+    }
+
+    boolean hasValidators() {
+      return etag != null || lastModified != null;
+    }
+  }
+}
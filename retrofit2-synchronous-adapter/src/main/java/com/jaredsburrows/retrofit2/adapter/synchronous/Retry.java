@@ -0,0 +1,58 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-executes a clone of the call when it fails with a retryable status code or an
+ * {@link java.io.IOException}:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;Retry(maxAttempts = 4)
+ *   &#64;GET("user/me")
+ *   User getUser()
+ * }
+ * </code></pre>
+ * Attempts are spaced with exponential backoff and jitter. A {@code Retry-After} header on the
+ * response takes precedence over the computed backoff; if it asks for more than
+ * {@link #maxBackoff()} the response is returned as is.
+ * <p>
+ * Only idempotent HTTP methods may be retried unless {@link #nonIdempotent()} is set.
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Retry {
+  /** Total number of attempts, including the first one. */
+  int maxAttempts() default 3;
+
+  /** Delay before the first retry. */
+  long initialBackoff() default 100;
+
+  /** Upper bound of the delay between two attempts. */
+  long maxBackoff() default 10_000;
+
+  /** Unit of {@link #initialBackoff()} and {@link #maxBackoff()}. */
+  TimeUnit unit() default MILLISECONDS;
+
+  /** Factor applied to the delay after each attempt. */
+  double multiplier() default 2.0;
+
+  /** Fraction of each delay, between 0 and 1, that is randomized. */
+  double jitter() default 0.5;
+
+  /** Response codes that are retried. */
+  int[] statusCodes() default {429, 502, 503, 504};
+
+  /** Whether {@link java.io.IOException}s, including timeouts, are retried. */
+  boolean retryOnIOException() default true;
+
+  /** Whether methods that are not idempotent, such as {@code POST}, may be retried. */
+  boolean nonIdempotent() default false;
+}
@@ -0,0 +1,144 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/** {@link CallExecutor} that applies a {@link Retry} policy by executing clones of the call. */
+final class RetryingCallExecutor implements CallExecutor {
+  private final CallExecutor delegate;
+  private final int maxAttempts;
+  private final long initialBackoffNanos;
+  private final long maxBackoffNanos;
+  private final double multiplier;
+  private final double jitter;
+  private final int[] statusCodes;
+  private final boolean retryOnIOException;
+
+  private RetryingCallExecutor(CallExecutor delegate, Retry retry) {
+    this.delegate = delegate;
+    this.maxAttempts = retry.maxAttempts();
+    this.initialBackoffNanos = retry.unit().toNanos(retry.initialBackoff());
+    this.maxBackoffNanos = retry.unit().toNanos(retry.maxBackoff());
+    this.multiplier = retry.multiplier();
+    this.jitter = retry.jitter();
+    this.statusCodes = retry.statusCodes().clone();
+    this.retryOnIOException = retry.retryOnIOException();
+    Arrays.sort(statusCodes);
+  }
+
+  static CallExecutor create(CallExecutor delegate, Retry retry, @Nullable String httpMethod) {
+    if (retry.maxAttempts() < 1) {
+      throw new IllegalStateException("@Retry maxAttempts must be at least 1");
+    }
+    if (retry.initialBackoff() < 0 || retry.maxBackoff() < retry.initialBackoff()) {
+      throw new IllegalStateException(
+        "@Retry backoff must satisfy 0 <= initialBackoff <= maxBackoff");
+    }
+    if (retry.multiplier() < 1.0) {
+      throw new IllegalStateException("@Retry multiplier must be at least 1.0");
+    }
+    if (retry.jitter() < 0.0 || retry.jitter() > 1.0) {
+      throw new IllegalStateException("@Retry jitter must be between 0.0 and 1.0");
+    }
+    if (!retry.nonIdempotent() && !Utils.isIdempotent(httpMethod)) {
+      throw new IllegalStateException("@Retry on non-idempotent " + httpMethod
+        + " requests requires nonIdempotent = true");
+    }
+    return retry.maxAttempts() == 1 ? delegate : new RetryingCallExecutor(delegate, retry);
+  }
+
+  @Override public <R> Response<R> execute(Call<R> call) throws IOException {
+    Call<R> attempt = call;
+    for (int attempts = 1; ; attempts++) {
+      Response<R> response;
+      try {
+        response = delegate.execute(attempt);
+      } catch (IOException e) {
+        long delayNanos = backoffNanos(attempts);
+        if (!retryOnIOException || attempts >= maxAttempts || isCanceled(attempt, e)
+          || delayNanos >= Deadline.currentRemainingNanos()) {
+          throw e;
+        }
+        sleep(delayNanos);
+        attempt = call.clone();
+        continue;
+      }
+
+      if (response.isSuccessful()
+        || attempts >= maxAttempts
+        || Arrays.binarySearch(statusCodes, response.code()) < 0) {
+        return response;
+      }
+
+      long delayNanos = backoffNanos(attempts);
+      long retryAfterNanos = retryAfterNanos(response);
+      if (retryAfterNanos > maxBackoffNanos) {
+        return response; // The server asks us to wait longer than we are willing to
+      }
+      delayNanos = Math.max(delayNanos, retryAfterNanos);
+      if (delayNanos >= Deadline.currentRemainingNanos()) {
+        return response; // The next attempt could not complete before the deadline
+      }
+      closeQuietly(response.errorBody());
+      sleep(delayNanos);
+      attempt = call.clone();
+    }
+  }
+
+  /** Returns true if the call was canceled, as opposed to canceled by its own timeout. */
+  private static boolean isCanceled(Call<?> call, IOException e) {
+    return call.isCanceled() && !(e instanceof InterruptedIOException);
+  }
+
+  /** Exponential backoff capped at the maximum, with the jitter fraction randomized. */
+  private long backoffNanos(int attempts) {
+    double backoff = initialBackoffNanos * Math.pow(multiplier, attempts - 1);
+    double capped = Math.min(backoff, maxBackoffNanos);
+    return (long) (capped * (1.0 - jitter * ThreadLocalRandom.current().nextDouble()));
+  }
+
+  /** Returns the delay requested by the {@code Retry-After} header, or 0 if there is none. */
+  private static long retryAfterNanos(Response<?> response) {
+    String retryAfter = response.headers().get("Retry-After");
+    if (retryAfter == null) {
+      return 0L;
+    }
+    try {
+      return TimeUnit.SECONDS.toNanos(Math.max(0L, Long.parseLong(retryAfter.trim())));
+    } catch (NumberFormatException ignored) {
+    }
+    Date date = response.headers().getDate("Retry-After");
+    if (date == null) {
+      return 0L;
+    }
+    return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, date.getTime() - System.currentTimeMillis()));
+  }
+
+  private static void sleep(long nanos) throws InterruptedIOException {
+    if (nanos <= 0L) {
+      return;
+    }
+    try {
+      TimeUnit.NANOSECONDS.sleep(nanos);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      InterruptedIOException exception = new InterruptedIOException("interrupted during backoff");
+      exception.initCause(e);
+      throw exception;
+    }
+  }
+
+  private static void closeQuietly(@Nullable ResponseBody body) {
+    if (body != null) {
+      body.close();
+    }
+  }
+}
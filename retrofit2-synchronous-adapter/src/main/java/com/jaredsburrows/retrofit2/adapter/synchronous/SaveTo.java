@@ -0,0 +1,32 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Writes the body straight to the file passed as a {@link retrofit2.http.Tag} and returns its
+ * path, without converting or buffering the body:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;SaveTo
+ *   &#64;Streaming
+ *   &#64;GET("artifacts/{name}")
+ *   Path download(@Path("name") String name, @Tag java.nio.file.Path destination)
+ * }
+ * </code></pre>
+ * The body is transferred to a temporary file next to the destination with
+ * {@link java.nio.channels.FileChannel#transferFrom}, which is then moved over the destination,
+ * so a failed download never leaves a partial file behind.
+ * <p>
+ * Methods must also be annotated with {@link retrofit2.http.Streaming} and return
+ * {@link java.nio.file.Path}.
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface SaveTo {
+}
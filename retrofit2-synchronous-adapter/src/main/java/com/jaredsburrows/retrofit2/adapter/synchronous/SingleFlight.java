@@ -0,0 +1,91 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import retrofit2.Call;
+
+/**
+ * Shares one execution between concurrent identical calls, as declared by {@link Coalesce}. Calls
+ * waiting for the shared execution give up once their {@link Deadline} or {@link Timeout} passes.
+ */
+final class SingleFlight {
+  /** Executes a call and returns the value that is shared with all identical calls. */
+  interface Leader<R> {
+    @Nullable Object adapt(Call<R> call);
+  }
+
+  private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<>();
+  private final String[] headers;
+  // Longest wait for a shared execution, Long.MAX_VALUE without a @Timeout
+  private final long timeoutNanos;
+  private final Exceptions exceptions;
+
+  private SingleFlight(String[] headers, long timeoutNanos, Exceptions exceptions) {
+    this.headers = headers;
+    this.timeoutNanos = timeoutNanos;
+    this.exceptions = exceptions;
+  }
+
+  static SingleFlight create(Coalesce coalesce, @Nullable Timeout timeout,
+    @Nullable String httpMethod, Exceptions exceptions) {
+    if (!"GET".equals(httpMethod) && !"HEAD".equals(httpMethod)) {
+      throw new IllegalStateException("@Coalesce is only supported on GET and HEAD requests");
+    }
+    long timeoutNanos = timeout != null
+      ? timeout.unit().toNanos(timeout.value())
+      : Long.MAX_VALUE;
+    return new SingleFlight(coalesce.headers().clone(), timeoutNanos, exceptions);
+  }
+
+  @Nullable <R> Object execute(Call<R> call, Leader<R> leader) {
+    String key = Utils.requestKey(call.request(), headers);
+    Flight flight = new Flight();
+    Flight inFlight = flights.putIfAbsent(key, flight);
+    if (inFlight != null) {
+      return inFlight.await(call, timeoutNanos, exceptions);
+    }
+
+    try {
+      flight.result = leader.adapt(call);
+      return flight.result;
+    } catch (RuntimeException | Error e) {
+      flight.failure = e;
+      throw e;
+    } finally {
+      flights.remove(key, flight);
+      flight.done.countDown();
+    }
+  }
+
+  private static final class Flight {
+    final CountDownLatch done = new CountDownLatch(1);
+    @Nullable Object result;
+    @Nullable Throwable failure;
+
+    @Nullable Object await(Call<?> call, long timeoutNanos, Exceptions exceptions) {
+      long remainingNanos = Deadline.currentRemainingNanos();
+      try {
+        if (!done.await(Math.min(timeoutNanos, remainingNanos), TimeUnit.NANOSECONDS)) {
+          throw exceptions.failure(call, remainingNanos < timeoutNanos
+            ? new DeadlineExceededException()
+            : new InterruptedIOException("timeout"));
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw exceptions.failure(null,
+          new InterruptedIOException("interrupted while waiting for call"));
+      }
+      if (failure instanceof RuntimeException) {
+        throw (RuntimeException) failure;
+      }
+      if (failure instanceof Error) {
+        throw (Error) failure;
+      }
+      return result;
+    }
+  }
+}
@@ -2,10 +2,11 @@ package com.jaredsburrows.retrofit2.adapter.synchronous;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Optional;
 import javax.annotation.Nullable;
 import retrofit2.Call;
 import retrofit2.CallAdapter;
-import retrofit2.HttpException;
 import retrofit2.Response;
 
 /**
@@ -16,12 +17,33 @@ import retrofit2.Response;
  *   User getUser()
  * }
  * </code></pre>
+ * or, when {@code optional} is set, the deserialized type wrapped in {@link Optional}.
  */
 final class SynchronousBodyCallAdapter<R> implements CallAdapter<R, Object> {
   private final Type responseType;
+  private final CallExecutor executor;
+  private final @Nullable SingleFlight singleFlight;
+  private final @Nullable ResponseCache<R> cache;
+  private final @Nullable Collapser collapser;
+  private final @Nullable ErrorBodyDecoder errorBodyDecoder;
+  // Sorted status codes returned as an absent body instead of thrown
+  private final @Nullable int[] absentCodes;
+  private final boolean optional;
+  private final Exceptions exceptions;
 
-  SynchronousBodyCallAdapter(Type responseType) {
+  SynchronousBodyCallAdapter(Type responseType, CallExecutor executor,
+    @Nullable SingleFlight singleFlight, @Nullable ResponseCache<R> cache,
+    @Nullable Collapser collapser, @Nullable ErrorBodyDecoder errorBodyDecoder,
+    @Nullable int[] absentCodes, boolean optional, Exceptions exceptions) {
     this.responseType = responseType;
+    this.executor = executor;
+    this.singleFlight = singleFlight;
+    this.cache = cache;
+    this.collapser = collapser;
+    this.errorBodyDecoder = errorBodyDecoder;
+    this.absentCodes = absentCodes;
+    this.optional = optional;
+    this.exceptions = exceptions;
   }
 
   @Override public Type responseType() {
@@ -29,13 +51,30 @@ final class SynchronousBodyCallAdapter<R> implements CallAdapter<R, Object> {
   }
 
   @Override @Nullable public Object adapt(Call<R> call) {
+    // Share the result with identical calls that are already in flight
+    Object body = singleFlight != null ? singleFlight.execute(call, this::load) : load(call);
+    return optional ? Optional.ofNullable(body) : body;
+  }
+
+  @Nullable private Object load(Call<R> call) {
+    // The call itself is not executed, its key is part of a bulk call
+    if (collapser != null) {
+      return collapser.execute(call);
+    }
+    if (cache != null) {
+      return cache.get(call);
+    }
+    return execute(call);
+  }
+
+  @Nullable private Object execute(Call<R> call) {
     Response<R> response;
 
     // Make the initial call
     try {
-      response = call.execute();
+      response = executor.execute(call);
     } catch (IOException e) {
-      throw new RuntimeException(e);
+      throw exceptions.failure(call, e);
     }
 
     // If successful(200 OK), return the response with body
@@ -43,7 +82,16 @@ final class SynchronousBodyCallAdapter<R> implements CallAdapter<R, Object> {
       return response.body();
     }
 
+    // Missing resources are returned as null without creating an exception
+    if (isAbsent(absentCodes, response.code())) {
+      return null;
+    }
+
     // If an error occurs, return HttpException including response
-    throw new HttpException(response);
+    throw exceptions.http(response, errorBodyDecoder);
+  }
+
+  static boolean isAbsent(@Nullable int[] absentCodes, int code) {
+    return absentCodes != null && Arrays.binarySearch(absentCodes, code) >= 0;
   }
 }
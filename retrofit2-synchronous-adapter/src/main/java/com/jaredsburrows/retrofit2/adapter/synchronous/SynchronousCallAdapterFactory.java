@@ -1,13 +1,29 @@
 package com.jaredsburrows.retrofit2.adapter.synchronous;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
 import retrofit2.Call;
 import retrofit2.CallAdapter;
+import retrofit2.Converter;
 import retrofit2.Response;
 import retrofit2.Retrofit;
+import retrofit2.http.Streaming;
 
 /**
  * A synchronous {@link CallAdapter.Factory} that uses the same thread for both I/O and
@@ -28,15 +44,118 @@ import retrofit2.Retrofit;
  *   Response&lt;User&gt; getUser()
  * }
  * </code></pre>
- * {@link CallAdapter.Factory} returns the deserialized body for 2XX responses, sets {@link
- * retrofit2.HttpException} errors for non-2XX responses, and for network errors.
+ * or, for {@link Streaming} methods, allows you to return a {@link Stream}, {@link Iterator} or
+ * {@link Iterable} whose elements are decoded lazily from a JSON array or newline-delimited JSON:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;Streaming
+ *   &#64;GET("users")
+ *   Stream&lt;User&gt; getUsers()
+ * }
+ * </code></pre>
+ * {@link Streaming} methods can also return the raw body as an {@link InputStream}, a
+ * {@link BufferedSource} or a {@link ReadableByteChannel}, or write it to a file with
+ * {@link SaveTo}.
+ * <p>
+ * {@link CallAdapter.Factory} returns the deserialized body for 2XX responses, throws {@link
+ * SynchronousHttpException} for non-2XX responses, and a {@link SynchronousCallException} for
+ * network errors, timeouts and cancellation. Use {@link Builder} to create these exceptions without
+ * stack traces, or to cancel calls whose thread is interrupted.
+ * <p>
+ * Service methods can opt into {@link Timeout} to bound the duration of a call, {@link Retry} to
+ * re-execute failed calls, {@link Hedge} to race slow calls against a second copy,
+ * {@link CircuitBreaker} to fail fast while a dependency is down, {@link ConcurrencyLimit} to
+ * bound concurrent calls, {@link RateLimit} to pace calls, {@link Coalesce} to share one
+ * execution between concurrent identical calls, {@link Collapse} to batch calls into a bulk
+ * method, {@link Cacheable} to cache deserialized bodies,
+ * {@link ErrorBody} to decode error bodies, {@link CompressRequest} to gzip request bodies with
+ * {@link #requestCompression()}, and {@link NotFoundAsNull} to return null for missing
+ * resources. {@link Optional} return types are empty for missing resources, and {@link Paginated}
+ * methods return the elements of every page of a listing.
+ * Calls can be observed with a {@link CallMetricsListener}, and share the time budget of the
+ * {@link Deadline} attached to their thread.
  */
 public final class SynchronousCallAdapterFactory extends CallAdapter.Factory {
-  private SynchronousCallAdapterFactory() {
+  // Status codes for which Optional<T> return types are empty by default
+  private static final int[] OPTIONAL_ABSENT_CODES = {404};
+
+  private final CallMetricsListener listener;
+  private final Exceptions exceptions;
+  private final boolean cancelOnInterrupt;
+  // Circuit breakers shared per host by the methods of this factory
+  private final ConcurrentMap<CircuitBreaker, ConcurrentMap<String, CircuitBreakerState>>
+    hostBreakers = new ConcurrentHashMap<>();
+  // Rate limits shared per host by the methods of this factory
+  private final ConcurrentMap<RateLimit, ConcurrentMap<String, TokenBucket>>
+    hostRateLimits = new ConcurrentHashMap<>();
+
+  private SynchronousCallAdapterFactory(CallMetricsListener listener, Exceptions exceptions,
+    boolean cancelOnInterrupt) {
+    this.listener = listener;
+    this.exceptions = exceptions;
+    this.cancelOnInterrupt = cancelOnInterrupt;
   }
 
   public static CallAdapter.Factory create() {
-    return new SynchronousCallAdapterFactory();
+    return new Builder().build();
+  }
+
+  /** Returns a factory that reports the calls of every service method to {@code listener}. */
+  public static CallAdapter.Factory create(CallMetricsListener listener) {
+    return new Builder().listener(listener).build();
+  }
+
+  /**
+   * Creates {@code service} with every service method resolved up front, so invalid return types
+   * such as a raw {@link Response} fail here instead of on the first request. The returned
+   * instance should be used in place of {@link Retrofit#create(Class)}; it shares the call
+   * factory, and therefore the connection pool, of {@code retrofit}.
+   */
+  public static <T> T warmUp(Retrofit retrofit, Class<T> service) {
+    return warmUp(retrofit, service, false);
+  }
+
+  /**
+   * Same as {@link #warmUp(Retrofit, Class)} and, when {@code preconnect} is true, also sends a
+   * {@code HEAD} request to {@link Retrofit#baseUrl()} so the first real call reuses a pooled
+   * connection instead of paying for DNS, TCP and TLS. Preconnect is best-effort: network errors
+   * are ignored and left for the first real call to report.
+   */
+  public static <T> T warmUp(Retrofit retrofit, Class<T> service, boolean preconnect) {
+    // Resolves the call adapter and converters of every method, failing fast on invalid ones
+    T instance = retrofit.newBuilder()
+      .validateEagerly(true)
+      .build()
+      .create(service);
+
+    if (preconnect) {
+      preconnect(retrofit);
+    }
+    return instance;
+  }
+
+  /**
+   * Returns the interceptor that gzip-compresses the request bodies of {@link CompressRequest}
+   * methods. Add it to the client of the service:
+   * <pre><code>
+   * OkHttpClient client = new OkHttpClient.Builder()
+   *   .addInterceptor(SynchronousCallAdapterFactory.requestCompression())
+   *   .build();
+   * </code></pre>
+   */
+  public static Interceptor requestCompression() {
+    return RequestCompressionInterceptor.INSTANCE;
+  }
+
+  private static void preconnect(Retrofit retrofit) {
+    Request request = new Request.Builder()
+      .url(retrofit.baseUrl())
+      .head()
+      .build();
+    try {
+      retrofit.callFactory().newCall(request).execute().close();
+    } catch (IOException ignored) {
+    }
   }
 
   @Override @Nullable public CallAdapter<?, ?> get(
@@ -46,9 +165,84 @@ public final class SynchronousCallAdapterFactory extends CallAdapter.Factory {
       return null;
     }
 
+    CompressRequest compress = Utils.findAnnotation(annotations, CompressRequest.class);
+    if (compress != null && compress.minBytes() < 0) {
+      throw new IllegalStateException("@CompressRequest minBytes must not be negative");
+    }
+
+    CallExecutor executor = executor(returnType, annotations);
+    ErrorBodyDecoder errorBodyDecoder = errorBodyDecoder(annotations, retrofit);
+
+    // Bodies of @Streaming methods that are read or saved without a converter
+    Class<?> rawType = getRawType(returnType);
+    boolean streaming = Utils.findAnnotation(annotations, Streaming.class) != null;
+    boolean saveTo = Utils.findAnnotation(annotations, SaveTo.class) != null;
+    boolean optional = rawType == Optional.class;
+    int[] absentCodes = absentCodes(annotations, optional);
+
+    // Iterable<T> of @Paginated methods walks every page
+    Paginated paginated = Utils.findAnnotation(annotations, Paginated.class);
+    if (paginated != null) {
+      if (absentCodes != null) {
+        throw new IllegalStateException("@NotFoundAsNull is not supported on @Paginated methods");
+      }
+      return paginatedCallAdapter(paginated, rawType, returnType, annotations, retrofit, executor,
+        errorBodyDecoder, streaming);
+    }
+
+    if (rawType == InputStream.class || rawType == BufferedSource.class
+      || rawType == ReadableByteChannel.class || saveTo) {
+      if (absentCodes != null) {
+        throw new IllegalStateException(
+          "@NotFoundAsNull is not supported on " + rawType.getSimpleName() + " return types");
+      }
+      return sourceCallAdapter(rawType, annotations, executor, errorBodyDecoder, streaming,
+        saveTo);
+    }
+
+    // Stream<T>, Iterator<T> and Iterable<T> of @Streaming methods decode elements lazily
+    if (rawType == Stream.class || rawType == Iterator.class
+      || (rawType == Iterable.class && streaming)) {
+      if (absentCodes != null) {
+        throw new IllegalStateException(
+          "@NotFoundAsNull is not supported on " + rawType.getSimpleName() + " return types");
+      }
+      return streamCallAdapter(rawType, returnType, annotations, retrofit, executor,
+        errorBodyDecoder, streaming);
+    }
+
+    // Optional<T> is the body type wrapped by the adapter
+    if (optional) {
+      if (!(returnType instanceof ParameterizedType)) {
+        throw new IllegalStateException(
+          "Optional must be parameterized as Optional<Foo> or Optional<? extends Foo>");
+      }
+      Type bodyType = getParameterUpperBound(0, (ParameterizedType) returnType);
+      return bodyCallAdapter(bodyType, annotations, retrofit, executor, errorBodyDecoder,
+        absentCodes, true);
+    }
+
     // Return type is not Response<T>. Use it for body-only adapter.
-    if (getRawType(returnType) != Response.class) {
-      return new SynchronousBodyCallAdapter<>(returnType);
+    if (rawType != Response.class) {
+      return bodyCallAdapter(returnType, annotations, retrofit, executor, errorBodyDecoder,
+        absentCodes, false);
+    }
+
+    if (Utils.findAnnotation(annotations, Coalesce.class) != null) {
+      throw new IllegalStateException("@Coalesce is not supported on Response<T> return types");
+    }
+    if (Utils.findAnnotation(annotations, Collapse.class) != null) {
+      throw new IllegalStateException("@Collapse is not supported on Response<T> return types");
+    }
+    if (Utils.findAnnotation(annotations, Cacheable.class) != null) {
+      throw new IllegalStateException("@Cacheable is not supported on Response<T> return types");
+    }
+    if (errorBodyDecoder != null) {
+      throw new IllegalStateException("@ErrorBody is not supported on Response<T> return types");
+    }
+    if (absentCodes != null) {
+      throw new IllegalStateException(
+        "@NotFoundAsNull is not supported on Response<T> return types");
     }
 
     // Make sure Response<T> is parameterized
@@ -59,6 +253,264 @@ public final class SynchronousCallAdapterFactory extends CallAdapter.Factory {
 
     // Handle Response<T> return types
     Type responseType = getParameterUpperBound(0, (ParameterizedType) returnType);
-    return new SynchronousResponseCallAdapter<>(responseType);
+    return new SynchronousResponseCallAdapter<>(responseType, executor, exceptions);
+  }
+
+  private <R> CallAdapter<R, Object> bodyCallAdapter(Type returnType,
+    Annotation[] annotations, Retrofit retrofit, CallExecutor executor,
+    @Nullable ErrorBodyDecoder errorBodyDecoder, @Nullable int[] absentCodes, boolean optional) {
+    String httpMethod = Utils.httpMethod(annotations);
+
+    SingleFlight singleFlight = null;
+    Coalesce coalesce = Utils.findAnnotation(annotations, Coalesce.class);
+    if (coalesce != null) {
+      if (returnType == ResponseBody.class) {
+        throw new IllegalStateException("@Coalesce can not share a ResponseBody between calls");
+      }
+      singleFlight = SingleFlight.create(coalesce,
+        Utils.findAnnotation(annotations, Timeout.class), httpMethod, exceptions);
+    }
+
+    Collapser collapser = null;
+    Collapse collapse = Utils.findAnnotation(annotations, Collapse.class);
+    if (collapse != null) {
+      if (coalesce != null || Utils.findAnnotation(annotations, Cacheable.class) != null) {
+        throw new IllegalStateException(
+          "@Coalesce and @Cacheable are not supported with @Collapse");
+      }
+      collapser = Collapser.create(collapse, retrofit, exceptions);
+    }
+
+    ResponseCache<R> cache = null;
+    Cacheable cacheable = Utils.findAnnotation(annotations, Cacheable.class);
+    if (cacheable != null) {
+      if (returnType == ResponseBody.class) {
+        throw new IllegalStateException("@Cacheable can not share a ResponseBody between calls");
+      }
+      Converter<ResponseBody, R> converter =
+        retrofit.responseBodyConverter(returnType, annotations);
+      cache = ResponseCache.create(cacheable, httpMethod, executor, retrofit.callFactory(),
+        converter, absentCodes, errorBodyDecoder, exceptions);
+    }
+
+    return new SynchronousBodyCallAdapter<>(returnType, executor, singleFlight, cache, collapser,
+      errorBodyDecoder, absentCodes, optional, exceptions);
+  }
+
+  private CallAdapter<ResponseBody, Object> sourceCallAdapter(Class<?> rawType,
+    Annotation[] annotations, CallExecutor executor, @Nullable ErrorBodyDecoder errorBodyDecoder,
+    boolean streaming, boolean saveTo) {
+    String name = saveTo ? "@SaveTo" : rawType.getSimpleName() + " return types";
+    if (!streaming) {
+      throw new IllegalStateException(name + " require @Streaming");
+    }
+    if (saveTo && rawType != Path.class) {
+      throw new IllegalStateException("@SaveTo methods must return Path");
+    }
+    if (Utils.findAnnotation(annotations, Coalesce.class) != null
+      || Utils.findAnnotation(annotations, Cacheable.class) != null) {
+      throw new IllegalStateException("@Coalesce and @Cacheable are not supported on " + name);
+    }
+
+    int kind = saveTo ? SynchronousSourceCallAdapter.SAVE_TO
+      : rawType == InputStream.class ? SynchronousSourceCallAdapter.INPUT_STREAM
+      : rawType == BufferedSource.class ? SynchronousSourceCallAdapter.SOURCE
+      : SynchronousSourceCallAdapter.CHANNEL;
+    return new SynchronousSourceCallAdapter(kind, executor, errorBodyDecoder, exceptions);
+  }
+
+  private CallAdapter<ResponseBody, Object> streamCallAdapter(Class<?> rawType,
+    Type returnType, Annotation[] annotations, Retrofit retrofit, CallExecutor executor,
+    @Nullable ErrorBodyDecoder errorBodyDecoder, boolean streaming) {
+    String name = rawType.getSimpleName();
+    if (!streaming) {
+      throw new IllegalStateException(name + " return types require @Streaming");
+    }
+    if (!(returnType instanceof ParameterizedType)) {
+      throw new IllegalStateException(
+        name + " must be parameterized as " + name + "<Foo> or " + name + "<? extends Foo>");
+    }
+    if (Utils.findAnnotation(annotations, Coalesce.class) != null
+      || Utils.findAnnotation(annotations, Cacheable.class) != null) {
+      throw new IllegalStateException(
+        "@Coalesce and @Cacheable are not supported on " + name + " return types");
+    }
+
+    Type elementType = getParameterUpperBound(0, (ParameterizedType) returnType);
+    Converter<ResponseBody, Object> converter =
+      retrofit.responseBodyConverter(elementType, annotations);
+    int kind = rawType == Stream.class ? SynchronousStreamCallAdapter.STREAM
+      : rawType == Iterator.class ? SynchronousStreamCallAdapter.ITERATOR
+      : SynchronousStreamCallAdapter.ITERABLE;
+    return new SynchronousStreamCallAdapter<>(kind, executor, converter, errorBodyDecoder,
+      exceptions);
+  }
+
+  private CallAdapter<ResponseBody, Object> paginatedCallAdapter(Paginated paginated,
+    Class<?> rawType, Type returnType, Annotation[] annotations, Retrofit retrofit,
+    CallExecutor executor, @Nullable ErrorBodyDecoder errorBodyDecoder, boolean streaming) {
+    if (rawType != Iterable.class || !(returnType instanceof ParameterizedType)) {
+      throw new IllegalStateException("@Paginated methods must return Iterable<Foo>");
+    }
+    if (streaming) {
+      throw new IllegalStateException("@Paginated is not supported on @Streaming methods");
+    }
+    if (Utils.findAnnotation(annotations, Coalesce.class) != null
+      || Utils.findAnnotation(annotations, Cacheable.class) != null) {
+      throw new IllegalStateException("@Coalesce and @Cacheable are not supported on @Paginated");
+    }
+
+    Type pageType = paginated.page() != void.class ? paginated.page()
+      : getParameterUpperBound(0, (ParameterizedType) returnType);
+    Converter<ResponseBody, Object> converter =
+      retrofit.responseBodyConverter(pageType, annotations);
+    return SynchronousPaginatedCallAdapter.create(paginated, Utils.httpMethod(annotations),
+      executor, retrofit.callFactory(), converter, errorBodyDecoder, exceptions);
+  }
+
+  @Nullable private static ErrorBodyDecoder errorBodyDecoder(Annotation[] annotations,
+    Retrofit retrofit) {
+    ErrorBody errorBody = Utils.findAnnotation(annotations, ErrorBody.class);
+    if (errorBody == null) {
+      return null;
+    }
+    Converter<ResponseBody, ?> converter =
+      retrofit.responseBodyConverter(errorBody.value(), new Annotation[0]);
+    return ErrorBodyDecoder.create(errorBody, converter);
+  }
+
+  /**
+   * Returns the sorted status codes that {@link NotFoundAsNull}, or {@link NotFoundAsEmpty} for
+   * {@link Optional} return types, turn into an absent body, or null if there are none.
+   */
+  @Nullable private static int[] absentCodes(Annotation[] annotations, boolean optional) {
+    NotFoundAsNull notFoundAsNull = Utils.findAnnotation(annotations, NotFoundAsNull.class);
+    NotFoundAsEmpty notFoundAsEmpty = Utils.findAnnotation(annotations, NotFoundAsEmpty.class);
+    if (optional) {
+      if (notFoundAsNull != null) {
+        throw new IllegalStateException(
+          "@NotFoundAsNull is not supported on Optional<T> return types, use @NotFoundAsEmpty");
+      }
+      return notFoundAsEmpty == null ? OPTIONAL_ABSENT_CODES
+        : statusCodes("@NotFoundAsEmpty", notFoundAsEmpty.value());
+    }
+    if (notFoundAsEmpty != null) {
+      throw new IllegalStateException("@NotFoundAsEmpty requires an Optional<T> return type");
+    }
+    return notFoundAsNull == null ? null : statusCodes("@NotFoundAsNull", notFoundAsNull.value());
+  }
+
+  private static int[] statusCodes(String name, int[] codes) {
+    if (codes.length == 0) {
+      throw new IllegalStateException(name + " requires at least one status code");
+    }
+    int[] sorted = codes.clone();
+    Arrays.sort(sorted);
+    if (sorted[0] < 300 || sorted[sorted.length - 1] > 599) {
+      throw new IllegalStateException(name + " status codes must be between 300 and 599");
+    }
+    return sorted;
+  }
+
+  /** Builds the {@link CallExecutor} for the policies declared on a service method. */
+  private CallExecutor executor(Type returnType, Annotation[] annotations) {
+    CallExecutor executor = CallExecutor.DIRECT;
+    if (cancelOnInterrupt) {
+      executor = new InterruptibleCallExecutor(executor);
+    }
+    // Applied below @Timeout so that each attempt gets the lesser of both
+    executor = new DeadlineCallExecutor(executor);
+    String httpMethod = Utils.httpMethod(annotations);
+
+    Timeout timeout = Utils.findAnnotation(annotations, Timeout.class);
+    if (timeout != null) {
+      executor = TimeoutCallExecutor.create(executor, timeout);
+    }
+
+    MethodDescriptor method = MethodDescriptor.create(returnType, annotations);
+
+    // Every attempt and hedge takes a slot, which is released during retry backoff
+    ConcurrencyLimit limit = Utils.findAnnotation(annotations, ConcurrencyLimit.class);
+    if (limit != null) {
+      executor = LimitingCallExecutor.create(executor, limit, method, exceptions);
+    }
+
+    // Calls wait for their turn before taking a concurrency slot
+    RateLimit rateLimit = Utils.findAnnotation(annotations, RateLimit.class);
+    if (rateLimit != null) {
+      executor = RateLimitingCallExecutor.create(executor, rateLimit, method, hostRateLimits,
+        exceptions);
+    }
+
+    // Hedges go through the limiters above, like the original call
+    Hedge hedge = Utils.findAnnotation(annotations, Hedge.class);
+    if (hedge != null) {
+      executor = HedgingCallExecutor.create(executor, hedge, httpMethod);
+    }
+
+    // Retries wrap the hedged executor so that every attempt is hedged
+    Retry retry = Utils.findAnnotation(annotations, Retry.class);
+    if (retry != null) {
+      executor = RetryingCallExecutor.create(executor, retry, httpMethod);
+    }
+
+    // Metrics observe the call as a whole, including every retry and hedge
+    if (listener != CallMetricsListener.NONE) {
+      executor = new MetricsCallExecutor(executor, listener, method);
+    }
+
+    // Open breakers reject calls before they are started
+    CircuitBreaker breaker = Utils.findAnnotation(annotations, CircuitBreaker.class);
+    if (breaker != null) {
+      executor = CircuitBreakingCallExecutor.create(executor, breaker, method, hostBreakers,
+        exceptions);
+    }
+
+    // Flight recorder events cover every call, including those rejected by a breaker
+    return CallEvents.wrap(executor, method);
+  }
+
+  /** Builds a {@link SynchronousCallAdapterFactory}. */
+  public static final class Builder {
+    private CallMetricsListener listener = CallMetricsListener.NONE;
+    private boolean stackTraces = true;
+    private boolean cancelOnInterrupt;
+
+    /** Reports the calls of every service method to {@code listener}. */
+    @SuppressWarnings("ConstantConditions") // Guarding public API nullability.
+    public Builder listener(CallMetricsListener listener) {
+      if (listener == null) {
+        throw new NullPointerException("listener == null");
+      }
+      this.listener = listener;
+      return this;
+    }
+
+    /**
+     * Whether the exceptions thrown by calls, including {@link SynchronousHttpException}, fill in
+     * their stack trace, which is true by default. Filling in the stack trace is most of the cost
+     * of throwing, disable it for services that may fail thousands of times per second.
+     */
+    public Builder stackTraces(boolean enabled) {
+      this.stackTraces = enabled;
+      return this;
+    }
+
+    /**
+     * Whether interrupting a thread blocked in a call cancels the call, which then throws a
+     * {@link SynchronousCanceledException}. Disabled by default, in which case the exchange of an
+     * interrupted platform thread keeps running until it completes or times out. Enabling it runs
+     * the calls of platform threads on a background thread, which costs a thread handoff per call;
+     * calls of virtual threads run directly.
+     */
+    public Builder cancelOnInterrupt(boolean enabled) {
+      this.cancelOnInterrupt = enabled;
+      return this;
+    }
+
+    public CallAdapter.Factory build() {
+      return new SynchronousCallAdapterFactory(listener,
+        stackTraces ? Exceptions.DEFAULT : Exceptions.STACKLESS, cancelOnInterrupt);
+    }
   }
 }
@@ -0,0 +1,28 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import javax.annotation.Nullable;
+
+/**
+ * Base class of the exceptions thrown when a synchronous call fails without an HTTP response,
+ * so callers can classify failures by type instead of unwrapping {@link #getCause()}:
+ * <ul>
+ *   <li>{@link SynchronousNetworkException} when the request or the response can't be read
+ *   or written;</li>
+ *   <li>{@link SynchronousTimeoutException} when the call times out;</li>
+ *   <li>{@link SynchronousCanceledException} when the call is canceled or its thread is
+ *   interrupted;</li>
+ *   <li>{@link CircuitBreakerOpenException}, {@link ConcurrencyLimitException} and
+ *   {@link RateLimitException} when the call is rejected before it is executed.</li>
+ * </ul>
+ * Non-2XX responses throw {@link SynchronousHttpException} instead, which extends
+ * {@link retrofit2.HttpException}. These exceptions have no stack trace when they are created by
+ * a factory built with {@link SynchronousCallAdapterFactory.Builder#stackTraces(boolean)
+ * stackTraces(false)}.
+ */
+public abstract class SynchronousCallException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  SynchronousCallException(String message, @Nullable Throwable cause, boolean stackTrace) {
+    super(message, cause, true, stackTrace);
+  }
+}
@@ -0,0 +1,12 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+
+/** Thrown when a synchronous call is canceled, or when its thread is interrupted. */
+public final class SynchronousCanceledException extends SynchronousCallException {
+  private static final long serialVersionUID = 1L;
+
+  SynchronousCanceledException(IOException cause, boolean stackTrace) {
+    super(cause.toString(), cause, stackTrace);
+  }
+}
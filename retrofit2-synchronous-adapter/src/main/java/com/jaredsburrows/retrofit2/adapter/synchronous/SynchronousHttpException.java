@@ -0,0 +1,70 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import javax.annotation.Nullable;
+import okhttp3.MediaType;
+import okio.ByteString;
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+/**
+ * Thrown for non-2XX responses. For service methods declaring an {@link ErrorBody}, the decoded
+ * error body is available through {@link #errorBody(Class)}.
+ */
+public final class SynchronousHttpException extends HttpException {
+  private static final long serialVersionUID = 1L;
+
+  private final transient @Nullable ErrorBodyDecoder decoder;
+  private final transient @Nullable ByteString bytes;
+  private final transient @Nullable MediaType contentType;
+  private transient volatile @Nullable Object errorBody;
+  private transient volatile boolean decoded;
+  // False while HttpException's constructor runs, so that the stack trace is filled in at most once
+  private final boolean stackTrace;
+
+  SynchronousHttpException(Response<?> response, boolean stackTrace) {
+    this(response, null, null, null, stackTrace);
+  }
+
+  SynchronousHttpException(Response<?> response, @Nullable ErrorBodyDecoder decoder,
+    @Nullable ByteString bytes, @Nullable MediaType contentType, boolean stackTrace) {
+    super(response);
+    this.decoder = decoder;
+    this.bytes = bytes;
+    this.contentType = contentType;
+    this.stackTrace = stackTrace;
+    if (stackTrace) {
+      fillInStackTrace();
+    }
+  }
+
+  @Override public synchronized Throwable fillInStackTrace() {
+    return stackTrace ? super.fillInStackTrace() : this;
+  }
+
+  /**
+   * Returns the error body decoded to the type declared by {@link ErrorBody}, which is decoded
+   * on the first call. Returns null if there is no body, if it is larger than
+   * {@link ErrorBody#maxBytes()} or if it can't be decoded.
+   *
+   * @throws ClassCastException if {@code type} is not the declared type or one of its supertypes
+   */
+  public @Nullable <E> E errorBody(Class<E> type) {
+    if (!decoded) {
+      errorBody = decode();
+      decoded = true;
+    }
+    return type.cast(errorBody);
+  }
+
+  private @Nullable Object decode() {
+    if (decoder == null || bytes == null) {
+      return null;
+    }
+    try {
+      return decoder.decode(bytes, contentType);
+    } catch (IOException | RuntimeException e) {
+      return null;
+    }
+  }
+}
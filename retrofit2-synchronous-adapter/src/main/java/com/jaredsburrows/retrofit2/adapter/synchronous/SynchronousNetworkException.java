@@ -0,0 +1,12 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+
+/** Thrown when a synchronous call fails because its request or its response can't be read. */
+public final class SynchronousNetworkException extends SynchronousCallException {
+  private static final long serialVersionUID = 1L;
+
+  SynchronousNetworkException(IOException cause, boolean stackTrace) {
+    super(cause.toString(), cause, stackTrace);
+  }
+}
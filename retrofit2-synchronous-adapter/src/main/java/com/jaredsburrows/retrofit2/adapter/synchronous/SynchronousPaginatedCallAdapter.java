@@ -0,0 +1,321 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Converter;
+import retrofit2.Response;
+
+/**
+ * {@link CallAdapter} allows you to return the elements of every page of a {@link Paginated}
+ * listing:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;Paginated
+ *   &#64;GET("users")
+ *   Iterable&lt;User&gt; getUsers()
+ * }
+ * </code></pre>
+ * The first page is executed by {@link #adapt}, the next ones as {@link PageCall}s through the
+ * same {@link CallExecutor}.
+ */
+final class SynchronousPaginatedCallAdapter<T> implements CallAdapter<ResponseBody, Object> {
+  private final CallExecutor executor;
+  private final okhttp3.Call.Factory callFactory;
+  // Decodes the elements of JSON array pages, or whole pages if items is set
+  private final Converter<ResponseBody, ?> converter;
+  private final @Nullable Field items;
+  private final @Nullable Field cursor;
+  private final String cursorParameter;
+  private final boolean prefetch;
+  private final @Nullable ErrorBodyDecoder errorBodyDecoder;
+  private final Exceptions exceptions;
+
+  private SynchronousPaginatedCallAdapter(CallExecutor executor, okhttp3.Call.Factory callFactory,
+    Converter<ResponseBody, ?> converter, @Nullable Field items, @Nullable Field cursor,
+    String cursorParameter, boolean prefetch, @Nullable ErrorBodyDecoder errorBodyDecoder,
+    Exceptions exceptions) {
+    this.executor = executor;
+    this.callFactory = callFactory;
+    this.converter = converter;
+    this.items = items;
+    this.cursor = cursor;
+    this.cursorParameter = cursorParameter;
+    this.prefetch = prefetch;
+    this.errorBodyDecoder = errorBodyDecoder;
+    this.exceptions = exceptions;
+  }
+
+  /**
+   * Creates an adapter whose pages are decoded by {@code converter}: to the elements of a JSON
+   * array if {@link Paginated#page()} is not set, or to the page type otherwise.
+   */
+  static <T> SynchronousPaginatedCallAdapter<T> create(Paginated paginated,
+    @Nullable String httpMethod, CallExecutor executor, okhttp3.Call.Factory callFactory,
+    Converter<ResponseBody, ?> converter, @Nullable ErrorBodyDecoder errorBodyDecoder,
+    Exceptions exceptions) {
+    if (!"GET".equals(httpMethod)) {
+      throw new IllegalStateException("@Paginated is only supported on GET requests");
+    }
+
+    Field items = null;
+    Field cursor = null;
+    if (paginated.page() != void.class) {
+      items = field(paginated.page(), paginated.items());
+      if (!Iterable.class.isAssignableFrom(items.getType())) {
+        throw new IllegalStateException("@Paginated items field " + paginated.items()
+          + " must be an Iterable");
+      }
+      if (!paginated.cursor().isEmpty()) {
+        cursor = field(paginated.page(), paginated.cursor());
+      }
+    } else if (!paginated.cursor().isEmpty()) {
+      throw new IllegalStateException("@Paginated cursor requires a page type");
+    }
+    if (cursor != null && paginated.cursorParameter().isEmpty()) {
+      throw new IllegalStateException("@Paginated cursorParameter must not be empty");
+    }
+    return new SynchronousPaginatedCallAdapter<>(executor, callFactory, converter, items, cursor,
+      paginated.cursorParameter(), paginated.prefetch(), errorBodyDecoder, exceptions);
+  }
+
+  private static Field field(Class<?> type, String name) {
+    for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+      try {
+        Field field = c.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+      } catch (NoSuchFieldException ignored) {
+      }
+    }
+    throw new IllegalStateException(
+      "@Paginated page type " + type.getName() + " has no field " + name);
+  }
+
+  @Override public Type responseType() {
+    return ResponseBody.class;
+  }
+
+  @Override public Object adapt(Call<ResponseBody> call) {
+    Pages pages = new Pages();
+    pages.load(call, execute(call));
+    return pages;
+  }
+
+  private Response<ResponseBody> execute(Call<ResponseBody> call) {
+    Response<ResponseBody> response;
+    try {
+      response = executor.execute(call);
+    } catch (IOException e) {
+      throw exceptions.failure(call, e);
+    }
+    if (!response.isSuccessful()) {
+      throw exceptions.http(response, errorBodyDecoder);
+    }
+    return response;
+  }
+
+  /** Returns the request of the page after {@code response}, or null if it is the last one. */
+  @Nullable private Request nextRequest(Request request, Response<ResponseBody> response,
+    @Nullable Object page) {
+    HttpUrl url;
+    if (cursor != null) {
+      Object value = read(cursor, page);
+      if (value == null || value.toString().isEmpty()) {
+        return null;
+      }
+      url = request.url().newBuilder()
+        .setQueryParameter(cursorParameter, value.toString())
+        .build();
+    } else {
+      String link = nextLink(response.headers().values("Link"));
+      url = link != null ? request.url().resolve(link) : null;
+      if (url == null) {
+        return null;
+      }
+    }
+    return request.newBuilder().url(url).build();
+  }
+
+  @Nullable private static Object read(Field field, @Nullable Object page) {
+    if (page == null) {
+      return null;
+    }
+    try {
+      return field.get(page);
+    } catch (IllegalAccessException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /** Returns the target of the {@code rel="next"} link of {@code links}, or null if none. */
+  @Nullable static String nextLink(List<String> links) {
+    for (String header : links) {
+      int start = header.indexOf('<');
+      while (start != -1) {
+        int end = header.indexOf('>', start);
+        if (end == -1) {
+          break;
+        }
+        // Parameters of a link run up to the next link
+        int next = header.indexOf('<', end);
+        String parameters = header.substring(end + 1, next == -1 ? header.length() : next);
+        if (isNextRelation(parameters)) {
+          return header.substring(start + 1, end).trim();
+        }
+        start = next;
+      }
+    }
+    return null;
+  }
+
+  private static boolean isNextRelation(String parameters) {
+    for (String parameter : parameters.split(";")) {
+      int equals = parameter.indexOf('=');
+      if (equals == -1 || !parameter.substring(0, equals).trim().equalsIgnoreCase("rel")) {
+        continue;
+      }
+      String value = parameter.substring(equals + 1).trim();
+      if (value.endsWith(",")) {
+        value = value.substring(0, value.length() - 1).trim();
+      }
+      if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+        value = value.substring(1, value.length() - 1);
+      }
+      // The relation may be a space-separated list, as in rel="next last"
+      for (String relation : value.trim().split("\\s+")) {
+        if (relation.equalsIgnoreCase("next")) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /** Lazy iterable over the elements of every page, which can only be iterated once. */
+  final class Pages implements Iterable<T>, Iterator<T>, Closeable {
+    private Iterator<T> elements = Collections.emptyIterator();
+    // Call of the next page, and its result once it is fetched in the background
+    private @Nullable PageCall next;
+    private @Nullable Future<Response<ResponseBody>> fetched;
+    private boolean iterated;
+    private boolean closed;
+
+    @Override public synchronized Iterator<T> iterator() {
+      if (iterated) {
+        throw new IllegalStateException("A paginated Iterable can only be iterated once");
+      }
+      iterated = true;
+      return this;
+    }
+
+    @Override public boolean hasNext() {
+      while (!elements.hasNext()) {
+        if (closed || next == null) {
+          return false;
+        }
+        PageCall call = next;
+        Response<ResponseBody> response = fetched != null ? await(call, fetched) : execute(call);
+        load(call, response);
+      }
+      return true;
+    }
+
+    @Override public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return elements.next();
+    }
+
+    @Override public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (elements instanceof JsonElementIterator) {
+        ((JsonElementIterator<?>) elements).close();
+      }
+      if (next != null) {
+        next.cancel();
+        if (fetched != null) {
+          fetched.cancel(true);
+        }
+      }
+    }
+
+    @SuppressWarnings("unchecked") // Elements are decoded to T by the converters.
+    void load(Call<ResponseBody> call, Response<ResponseBody> response) {
+      ResponseBody body = response.body();
+      if (body == null) {
+        body = ResponseBody.create(new Buffer(), null, 0L);
+      }
+
+      Object page = null;
+      if (items != null) {
+        try {
+          page = converter.convert(body);
+        } catch (IOException e) {
+          throw exceptions.failure(call, e);
+        } finally {
+          body.close();
+        }
+        Iterable<T> values = (Iterable<T>) read(items, page);
+        elements = values != null ? values.iterator() : Collections.<T>emptyIterator();
+      } else {
+        elements = new JsonElementIterator<>(body, (Converter<ResponseBody, T>) converter, call,
+          exceptions);
+      }
+
+      Request request = nextRequest(call.request(), response, page);
+      next = request != null ? new PageCall(callFactory, request) : null;
+      fetched = null;
+      if (next != null && prefetch) {
+        PageCall prefetched = next;
+        fetched = DefaultExecutors.io().submit(
+          Deadline.wrap(Deadline.current(), () -> executor.execute(prefetched)));
+      }
+    }
+
+    private Response<ResponseBody> await(PageCall call,
+      Future<Response<ResponseBody>> future) {
+      Response<ResponseBody> response;
+      try {
+        response = future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        close();
+        throw exceptions.failure(call,
+          new InterruptedIOException("interrupted while waiting for the next page"));
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+          throw exceptions.failure(call, (IOException) cause);
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw (RuntimeException) cause;
+      }
+      if (!response.isSuccessful()) {
+        throw exceptions.http(response, errorBodyDecoder);
+      }
+      return response;
+    }
+  }
+}
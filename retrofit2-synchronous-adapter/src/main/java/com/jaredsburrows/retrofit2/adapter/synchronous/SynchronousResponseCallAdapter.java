@@ -4,6 +4,8 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import okhttp3.MediaType;
 import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
 import retrofit2.Call;
 import retrofit2.CallAdapter;
 import retrofit2.Response;
@@ -19,11 +21,29 @@ import retrofit2.Response;
  */
 final class SynchronousResponseCallAdapter<R> implements CallAdapter<R, Response<R>> {
   private static final MediaType DEFAULT_MEDIA_TYPE = MediaType.get("text/plain");
-  private static final String DEFAULT_EMPTY_CONTENT = "";
+  // Shared by every error without a body, each read gets its own empty source
+  private static final ResponseBody EMPTY_BODY = new ResponseBody() {
+    @Override public MediaType contentType() {
+      return DEFAULT_MEDIA_TYPE;
+    }
+
+    @Override public long contentLength() {
+      return 0L;
+    }
+
+    @Override public BufferedSource source() {
+      return new Buffer();
+    }
+  };
   private final Type responseType;
+  private final CallExecutor executor;
+  private final Exceptions exceptions;
 
-  SynchronousResponseCallAdapter(Type responseType) {
+  SynchronousResponseCallAdapter(Type responseType, CallExecutor executor,
+    Exceptions exceptions) {
     this.responseType = responseType;
+    this.executor = executor;
+    this.exceptions = exceptions;
   }
 
   @Override public Type responseType() {
@@ -35,9 +55,9 @@ final class SynchronousResponseCallAdapter<R> implements CallAdapter<R, Response
 
     // Make the initial call
     try {
-      response = call.execute();
+      response = executor.execute(call);
     } catch (IOException e) {
-      throw new RuntimeException(e);
+      throw exceptions.failure(call, e);
     }
 
     // If successful(200 OK) and Response<T> type, return the response with body
@@ -49,7 +69,7 @@ final class SynchronousResponseCallAdapter<R> implements CallAdapter<R, Response
     ResponseBody errorBody = response.errorBody();
     okhttp3.Response raw = response.raw();
     if (errorBody == null) {
-      return Response.error(ResponseBody.create(DEFAULT_MEDIA_TYPE, DEFAULT_EMPTY_CONTENT), raw);
+      return Response.error(EMPTY_BODY, raw);
     } else {
       return Response.error(errorBody, raw);
     }
@@ -0,0 +1,152 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import javax.annotation.Nullable;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Response;
+
+/**
+ * {@link CallAdapter} allows you to read the body of {@link retrofit2.http.Streaming} methods
+ * without converting it, as an {@link InputStream}, a {@link BufferedSource} or a
+ * {@link ReadableByteChannel}:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;Streaming
+ *   &#64;GET("artifacts/{name}")
+ *   InputStream download(@Path("name") String name)
+ * }
+ * </code></pre>
+ * The caller must close what is returned. {@link SaveTo} methods write the body to a file instead.
+ */
+final class SynchronousSourceCallAdapter implements CallAdapter<ResponseBody, Object> {
+  static final int INPUT_STREAM = 0;
+  static final int SOURCE = 1;
+  static final int CHANNEL = 2;
+  static final int SAVE_TO = 3;
+
+  // Bytes requested from each transferFrom, which reuses the JDK's cached temporary buffer
+  private static final long TRANSFER_SIZE = 1024 * 1024;
+
+  private final int kind;
+  private final CallExecutor executor;
+  private final @Nullable ErrorBodyDecoder errorBodyDecoder;
+  private final Exceptions exceptions;
+
+  SynchronousSourceCallAdapter(int kind, CallExecutor executor,
+    @Nullable ErrorBodyDecoder errorBodyDecoder, Exceptions exceptions) {
+    this.kind = kind;
+    this.executor = executor;
+    this.errorBodyDecoder = errorBodyDecoder;
+    this.exceptions = exceptions;
+  }
+
+  @Override public Type responseType() {
+    return ResponseBody.class;
+  }
+
+  @Override public Object adapt(Call<ResponseBody> call) {
+    // The destination is checked before the request is sent
+    Path destination = null;
+    if (kind == SAVE_TO) {
+      destination = call.request().tag(Path.class);
+      if (destination == null) {
+        throw new IllegalStateException("@SaveTo requires a @Tag Path parameter");
+      }
+    }
+
+    Response<ResponseBody> response;
+
+    // Make the initial call
+    try {
+      response = executor.execute(call);
+    } catch (IOException e) {
+      throw exceptions.failure(call, e);
+    }
+
+    // If an error occurs, return HttpException including response
+    if (!response.isSuccessful()) {
+      throw exceptions.http(response, errorBodyDecoder);
+    }
+
+    // 204 and 205 responses have no body
+    ResponseBody body = response.body();
+    if (body == null) {
+      body = ResponseBody.create(new Buffer(), null, 0L);
+    }
+
+    switch (kind) {
+      case INPUT_STREAM:
+        return body.byteStream();
+      case SOURCE:
+      case CHANNEL:
+        // BufferedSource is a ReadableByteChannel, closing it closes the body
+        return body.source();
+      default:
+        return saveTo(call, body, destination);
+    }
+  }
+
+  private Path saveTo(Call<ResponseBody> call, ResponseBody body, Path destination) {
+    // Every call writes a file of its own, even when downloading to the same destination
+    Path temporary;
+    try {
+      temporary = Files.createTempFile(destination.toAbsolutePath().getParent(),
+        destination.getFileName().toString(), ".download");
+    } catch (IOException e) {
+      body.close();
+      throw exceptions.failure(call, e);
+    }
+
+    try (BufferedSource source = body.source();
+         FileChannel file = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+      long position = 0L;
+      while (true) {
+        long transferred = file.transferFrom(source, position, TRANSFER_SIZE);
+        position += transferred;
+        if (transferred == 0L && source.exhausted()) {
+          break;
+        }
+      }
+    } catch (IOException e) {
+      deleteQuietly(temporary);
+      throw exceptions.failure(call, e);
+    }
+
+    try {
+      move(temporary, destination);
+    } catch (IOException e) {
+      deleteQuietly(temporary);
+      throw exceptions.failure(call, e);
+    }
+    return destination;
+  }
+
+  private static void move(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static void deleteQuietly(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException ignored) {
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.annotation.Nullable;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Converter;
+import retrofit2.Response;
+
+/**
+ * {@link CallAdapter} allows you to return the elements of a large JSON array, or of
+ * newline-delimited JSON, decoded one at a time as they are read:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;Streaming
+ *   &#64;GET("users")
+ *   Stream&lt;User&gt; getUsers()
+ * }
+ * </code></pre>
+ * {@link Iterator} and {@link Iterable} return types are supported as well. The body stays open
+ * until the elements are exhausted or the returned value is closed; the returned iterators and
+ * iterables implement {@link Closeable} for that purpose.
+ */
+final class SynchronousStreamCallAdapter<T> implements CallAdapter<ResponseBody, Object> {
+  static final int STREAM = 0;
+  static final int ITERATOR = 1;
+  static final int ITERABLE = 2;
+
+  private final int kind;
+  private final CallExecutor executor;
+  private final @Nullable ErrorBodyDecoder errorBodyDecoder;
+  private final Exceptions exceptions;
+  private final Converter<ResponseBody, T> converter;
+
+  SynchronousStreamCallAdapter(int kind, CallExecutor executor,
+    Converter<ResponseBody, T> converter, @Nullable ErrorBodyDecoder errorBodyDecoder,
+    Exceptions exceptions) {
+    this.kind = kind;
+    this.executor = executor;
+    this.converter = converter;
+    this.errorBodyDecoder = errorBodyDecoder;
+    this.exceptions = exceptions;
+  }
+
+  @Override public Type responseType() {
+    return ResponseBody.class;
+  }
+
+  @Override public Object adapt(Call<ResponseBody> call) {
+    Response<ResponseBody> response;
+
+    // Make the initial call
+    try {
+      response = executor.execute(call);
+    } catch (IOException e) {
+      throw exceptions.failure(call, e);
+    }
+
+    // If an error occurs, return HttpException including response
+    if (!response.isSuccessful()) {
+      throw exceptions.http(response, errorBodyDecoder);
+    }
+
+    // 204 and 205 responses have no body
+    ResponseBody body = response.body();
+    if (body == null) {
+      body = ResponseBody.create(new Buffer(), null, 0L);
+    }
+
+    JsonElementIterator<T> iterator = new JsonElementIterator<>(body, converter, call, exceptions);
+    switch (kind) {
+      case STREAM:
+        // Not NONNULL, converters may decode an element to null
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+          Spliterator.ORDERED), false)
+          .onClose(iterator::close);
+      case ITERATOR:
+        return iterator;
+      default:
+        return new OneShotIterable<>(iterator);
+    }
+  }
+
+  /** Iterable over the body, which can only be read once. */
+  static final class OneShotIterable<T> implements Iterable<T>, Closeable {
+    private final JsonElementIterator<T> iterator;
+    private boolean iterated;
+
+    OneShotIterable(JsonElementIterator<T> iterator) {
+      this.iterator = iterator;
+    }
+
+    @Override public synchronized Iterator<T> iterator() {
+      if (iterated) {
+        throw new IllegalStateException("A streamed Iterable can only be iterated once");
+      }
+      iterated = true;
+      return iterator;
+    }
+
+    @Override public void close() {
+      iterator.close();
+    }
+  }
+}
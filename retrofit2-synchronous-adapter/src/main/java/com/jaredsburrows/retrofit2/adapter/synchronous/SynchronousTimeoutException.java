@@ -0,0 +1,15 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Thrown when a synchronous call times out, either because of its {@link Timeout} or because of a
+ * timeout configured on the OkHttp client.
+ */
+public final class SynchronousTimeoutException extends SynchronousCallException {
+  private static final long serialVersionUID = 1L;
+
+  SynchronousTimeoutException(InterruptedIOException cause, boolean stackTrace) {
+    super(cause.getMessage(), cause, stackTrace);
+  }
+}
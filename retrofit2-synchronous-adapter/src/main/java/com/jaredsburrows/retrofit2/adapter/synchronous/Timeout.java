@@ -0,0 +1,34 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the time of the whole call, from resolving DNS to reading the response body, through
+ * {@link retrofit2.Call#timeout()}:
+ * <pre><code>
+ * interface MyService {
+ *   &#64;Timeout(value = 250, unit = MILLISECONDS)
+ *   &#64;GET("user/me")
+ *   User getUser()
+ * }
+ * </code></pre>
+ * The timeout applies to each attempt of a {@link Retry} or {@link Hedge}. A call that exceeds it
+ * throws {@link SynchronousTimeoutException}.
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Timeout {
+  /** Maximum duration of the call, which must be positive. */
+  long value();
+
+  /** Unit of {@link #value()}. */
+  TimeUnit unit() default MILLISECONDS;
+}
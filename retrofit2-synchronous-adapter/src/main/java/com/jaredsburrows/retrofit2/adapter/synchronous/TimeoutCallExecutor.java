@@ -0,0 +1,30 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/** {@link CallExecutor} that applies a {@link Timeout} to every call it executes. */
+final class TimeoutCallExecutor implements CallExecutor {
+  private final CallExecutor delegate;
+  private final long timeoutNanos;
+
+  private TimeoutCallExecutor(CallExecutor delegate, long timeoutNanos) {
+    this.delegate = delegate;
+    this.timeoutNanos = timeoutNanos;
+  }
+
+  static CallExecutor create(CallExecutor delegate, Timeout timeout) {
+    // Okio reads a timeout of 0 as none, which would lift the client's call timeout
+    if (timeout.value() <= 0) {
+      throw new IllegalStateException("@Timeout value must be positive");
+    }
+    return new TimeoutCallExecutor(delegate, timeout.unit().toNanos(timeout.value()));
+  }
+
+  @Override public <R> Response<R> execute(Call<R> call) throws IOException {
+    call.timeout().timeout(timeoutNanos, TimeUnit.NANOSECONDS);
+    return delegate.execute(call);
+  }
+}
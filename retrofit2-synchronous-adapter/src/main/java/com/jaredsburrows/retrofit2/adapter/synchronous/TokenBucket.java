@@ -0,0 +1,62 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented as a generic cell rate algorithm: instead of a token count,
+ * it keeps the theoretical arrival time of the next call, which a single compare-and-set moves
+ * forward by one interval per permit.
+ */
+final class TokenBucket {
+  private final String name;
+  private final long intervalNanos;
+  private final long burstNanos;
+  private final AtomicLong theoreticalArrivalNanos;
+
+  TokenBucket(String name, RateLimit rateLimit) {
+    this.name = name;
+    this.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1)
+      / rateLimit.permitsPerSecond()));
+    this.burstNanos = intervalNanos * rateLimit.burst();
+    this.theoreticalArrivalNanos = new AtomicLong(System.nanoTime());
+  }
+
+  void acquire(boolean failFast, Exceptions exceptions) throws InterruptedIOException {
+    long remainingNanos = Deadline.currentRemainingNanos();
+    long waitNanos;
+    for (;;) {
+      long now = System.nanoTime();
+      long arrival = theoreticalArrivalNanos.get();
+      long next = (arrival - now < 0 ? now : arrival) + intervalNanos;
+      waitNanos = next - now - burstNanos;
+      if (waitNanos > 0L && failFast) {
+        throw exceptions.rateLimit("Rate limit exceeded for " + name);
+      }
+      // Fails before taking the permit, the call could not run before its deadline
+      if (Math.max(0L, waitNanos) >= remainingNanos) {
+        throw new DeadlineExceededException();
+      }
+      if (theoreticalArrivalNanos.compareAndSet(arrival, next)) {
+        break;
+      }
+    }
+    sleep(waitNanos);
+  }
+
+  private static void sleep(long nanos) throws InterruptedIOException {
+    if (nanos <= 0L) {
+      return;
+    }
+    try {
+      TimeUnit.NANOSECONDS.sleep(nanos);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      InterruptedIOException exception =
+        new InterruptedIOException("interrupted waiting for a rate limit permit");
+      exception.initCause(e);
+      throw exception;
+    }
+  }
+}
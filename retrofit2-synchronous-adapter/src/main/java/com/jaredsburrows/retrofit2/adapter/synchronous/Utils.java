@@ -0,0 +1,124 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.lang.annotation.Annotation;
+import javax.annotation.Nullable;
+import okhttp3.Headers;
+import okhttp3.Request;
+import retrofit2.http.DELETE;
+import retrofit2.http.GET;
+import retrofit2.http.HEAD;
+import retrofit2.http.HTTP;
+import retrofit2.http.OPTIONS;
+import retrofit2.http.PATCH;
+import retrofit2.http.POST;
+import retrofit2.http.PUT;
+
+final class Utils {
+  private Utils() {
+    throw new AssertionError("No instances.");
+  }
+
+  @Nullable static <A extends Annotation> A findAnnotation(Annotation[] annotations,
+    Class<A> annotationClass) {
+    for (Annotation annotation : annotations) {
+      if (annotationClass.isInstance(annotation)) {
+        return annotationClass.cast(annotation);
+      }
+    }
+    return null;
+  }
+
+  /** Returns the HTTP method declared by Retrofit's annotations or null if there is none. */
+  @Nullable static String httpMethod(Annotation[] annotations) {
+    for (Annotation annotation : annotations) {
+      if (annotation instanceof GET) {
+        return "GET";
+      } else if (annotation instanceof HEAD) {
+        return "HEAD";
+      } else if (annotation instanceof OPTIONS) {
+        return "OPTIONS";
+      } else if (annotation instanceof PUT) {
+        return "PUT";
+      } else if (annotation instanceof DELETE) {
+        return "DELETE";
+      } else if (annotation instanceof POST) {
+        return "POST";
+      } else if (annotation instanceof PATCH) {
+        return "PATCH";
+      } else if (annotation instanceof HTTP) {
+        return ((HTTP) annotation).method();
+      }
+    }
+    return null;
+  }
+
+  /** Returns the relative URL declared by Retrofit's annotations, empty if there is none. */
+  static String relativeUrl(Annotation[] annotations) {
+    for (Annotation annotation : annotations) {
+      if (annotation instanceof GET) {
+        return ((GET) annotation).value();
+      } else if (annotation instanceof HEAD) {
+        return ((HEAD) annotation).value();
+      } else if (annotation instanceof OPTIONS) {
+        return ((OPTIONS) annotation).value();
+      } else if (annotation instanceof PUT) {
+        return ((PUT) annotation).value();
+      } else if (annotation instanceof DELETE) {
+        return ((DELETE) annotation).value();
+      } else if (annotation instanceof POST) {
+        return ((POST) annotation).value();
+      } else if (annotation instanceof PATCH) {
+        return ((PATCH) annotation).value();
+      } else if (annotation instanceof HTTP) {
+        return ((HTTP) annotation).path();
+      }
+    }
+    return "";
+  }
+
+  /** Idempotent methods as defined by RFC 9110, section 9.2.2. */
+  static boolean isIdempotent(@Nullable String httpMethod) {
+    if (httpMethod == null) {
+      return false;
+    }
+    switch (httpMethod) {
+      case "GET":
+      case "HEAD":
+      case "OPTIONS":
+      case "TRACE":
+      case "PUT":
+      case "DELETE":
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Returns a key identifying {@code request} by its method, URL and headers. Only the headers
+   * named in {@code headerNames} are included, or all of them if it is empty.
+   */
+  static String requestKey(Request request, String[] headerNames) {
+    StringBuilder key = new StringBuilder()
+      .append(request.method())
+      .append(' ')
+      .append(request.url());
+    Headers headers = request.headers();
+    if (headerNames.length == 0) {
+      for (int i = 0, size = headers.size(); i < size; i++) {
+        appendHeader(key, headers.name(i), headers.value(i));
+      }
+    } else {
+      for (String name : headerNames) {
+        for (String value : headers.values(name)) {
+          appendHeader(key, name, value);
+        }
+      }
+    }
+    return key.toString();
+  }
+
+  private static void appendHeader(StringBuilder key, String name, String value) {
+    key.append('\n').append(name).append(": ").append(value);
+  }
+}
@@ -0,0 +1,24 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
+
+/**
+ * Access to virtual threads. This is the Java 8 version, where they don't exist; the jar contains
+ * a Java 21 version under {@code META-INF/versions/21}.
+ */
+final class VirtualThreads {
+  private VirtualThreads() {
+    throw new AssertionError("No instances.");
+  }
+
+  /** Returns an executor starting a virtual thread per task, or null if they are not supported. */
+  @Nullable static ExecutorService newVirtualThreadPerTaskExecutor() {
+    return null;
+  }
+
+  /** Returns true if {@code thread} is a virtual thread. */
+  static boolean isVirtual(Thread thread) {
+    return false;
+  }
+}
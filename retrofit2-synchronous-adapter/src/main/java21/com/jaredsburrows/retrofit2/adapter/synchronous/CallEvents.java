@@ -0,0 +1,123 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import javax.annotation.Nullable;
+import jdk.jfr.EventType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Invocation;
+import retrofit2.Response;
+
+/**
+ * Java Flight Recorder events of synchronous calls. This is the Java 21 version, see the Java 8
+ * version in main.
+ */
+final class CallEvents {
+  private CallEvents() {
+    throw new AssertionError("No instances.");
+  }
+
+  /** Returns {@code delegate}, recording a {@link SynchronousCallEvent} for each of its calls. */
+  static CallExecutor wrap(CallExecutor delegate, MethodDescriptor method) {
+    return new RecordingCallExecutor(delegate, method);
+  }
+
+  /**
+   * Records calls that last longer than the event's threshold. Fields are only computed for events
+   * that are committed, and nothing is allocated while the event is disabled.
+   */
+  static final class RecordingCallExecutor implements CallExecutor {
+    private static final EventType TYPE = EventType.getEventType(SynchronousCallEvent.class);
+
+    private final CallExecutor delegate;
+    private final MethodDescriptor method;
+
+    RecordingCallExecutor(CallExecutor delegate, MethodDescriptor method) {
+      this.delegate = delegate;
+      this.method = method;
+    }
+
+    @Override public <R> Response<R> execute(Call<R> call) throws IOException {
+      // The event is not always scalar replaced, so it is only created while it is enabled
+      if (!TYPE.isEnabled()) {
+        return delegate.execute(call);
+      }
+
+      SynchronousCallEvent event = new SynchronousCallEvent();
+      event.begin();
+      Response<R> response;
+      try {
+        response = delegate.execute(call);
+      } catch (IOException e) {
+        commit(event, call, null, outcome(call, e));
+        throw e;
+      } catch (RuntimeException e) {
+        commit(event, call, null, outcome(e));
+        throw e;
+      }
+      commit(event, call, response, response.isSuccessful() ? "success" : "http_error");
+      return response;
+    }
+
+    private void commit(SynchronousCallEvent event, Call<?> call,
+      @Nullable Response<?> response, String outcome) {
+      event.end();
+      if (!event.shouldCommit()) {
+        return;
+      }
+      event.httpMethod = method.httpMethod();
+      event.urlTemplate = method.relativeUrl();
+      event.outcome = outcome;
+      event.requestBytes = -1L;
+      event.responseBytes = -1L;
+      if (response != null) {
+        event.status = response.code();
+        ResponseBody body = response.raw().body();
+        if (body != null) {
+          event.responseBytes = body.contentLength();
+        }
+      }
+      try {
+        Request request = call.request();
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation != null) {
+          Method serviceMethod = invocation.method();
+          event.serviceMethod =
+            serviceMethod.getDeclaringClass().getName() + "." + serviceMethod.getName();
+        }
+        RequestBody body = request.body();
+        if (body != null) {
+          event.requestBytes = body.contentLength();
+        }
+      } catch (IOException | RuntimeException ignored) {
+        // The request could not be created, its fields are left empty
+      }
+      event.commit();
+    }
+
+    /** Classifies a failure the same way as {@link Exceptions#failure}. */
+    private static String outcome(Call<?> call, IOException e) {
+      if (Thread.currentThread().isInterrupted()) {
+        return "canceled";
+      }
+      if (e instanceof InterruptedIOException) {
+        return "timeout";
+      }
+      return call.isCanceled() ? "canceled" : "network_error";
+    }
+
+    /** Tells the rejections of the policies apart from other failures, such as converter ones. */
+    private static String outcome(RuntimeException e) {
+      if (e instanceof CircuitBreakerOpenException
+        || e instanceof ConcurrencyLimitException
+        || e instanceof RateLimitException) {
+        return "rejected";
+      }
+      return "failure";
+    }
+  }
+}
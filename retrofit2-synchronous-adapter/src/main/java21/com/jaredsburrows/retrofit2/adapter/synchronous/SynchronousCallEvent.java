@@ -0,0 +1,50 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder event of a synchronous call, including its retries and hedges. Like
+ * {@code jdk.SocketRead}, only calls of at least 20 ms are recorded by default; set the threshold
+ * of {@code retrofit.SynchronousCall} in the recording's settings to change it.
+ */
+@Name("retrofit.SynchronousCall")
+@Label("Synchronous Call")
+@Category("Retrofit")
+@Description("Call of a synchronous Retrofit service method")
+@StackTrace(false)
+@Threshold("20 ms")
+final class SynchronousCallEvent extends Event {
+  @Label("Service Method")
+  String serviceMethod;
+
+  @Label("HTTP Method")
+  String httpMethod;
+
+  @Label("URL Template")
+  String urlTemplate;
+
+  @Label("Status")
+  @Description("HTTP status code, or 0 if no response was received")
+  int status;
+
+  @Label("Request Bytes")
+  @Description("Length of the request body, or -1 if unknown")
+  @DataAmount
+  long requestBytes;
+
+  @Label("Response Bytes")
+  @Description("Length of the response body, or -1 if unknown")
+  @DataAmount
+  long responseBytes;
+
+  @Label("Outcome")
+  @Description("success, http_error, network_error, timeout, canceled, rejected or failure")
+  String outcome;
+}
@@ -0,0 +1,23 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.Nullable;
+
+/** Access to virtual threads. This is the Java 21 version, see the Java 8 version in main. */
+final class VirtualThreads {
+  private VirtualThreads() {
+    throw new AssertionError("No instances.");
+  }
+
+  /** Returns an executor starting a virtual thread per task, or null if they are not supported. */
+  @Nullable static ExecutorService newVirtualThreadPerTaskExecutor() {
+    return Executors.newThreadPerTaskExecutor(
+      Thread.ofVirtual().name("SynchronousCallAdapter io ", 1).factory());
+  }
+
+  /** Returns true if {@code thread} is a virtual thread. */
+  static boolean isVirtual(Thread thread) {
+    return thread.isVirtual();
+  }
+}
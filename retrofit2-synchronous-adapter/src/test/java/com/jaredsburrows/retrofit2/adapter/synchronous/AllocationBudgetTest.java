@@ -0,0 +1,179 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertWithMessage;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import org.junit.Before;
+import org.junit.Test;
+import retrofit2.CallAdapter;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.GET;
+
+/**
+ * Fails when the bytes allocated by one {@link CallAdapter#adapt} call of the adapters built by
+ * {@link SynchronousCallAdapterFactory} go over the budget of its path. Calls never touch the
+ * network, so only the adapters and their executors are measured.
+ * <p>
+ * Budgets leave some headroom over the objects each path has to create, so that they hold whether
+ * or not the JIT removed any of them. Error paths are measured without stack traces, whose cost
+ * depends on the depth of the caller.
+ */
+public class AllocationBudgetTest {
+  private static final int WARMUP = 10_000;
+  private static final int ITERATIONS = 10_000;
+
+  private com.sun.management.ThreadMXBean threads;
+  private Retrofit retrofit;
+  private Retrofit defaultRetrofit;
+
+  interface Service {
+    @GET("/") String body();
+
+    @GET("/") Response<String> response();
+  }
+
+  @Before public void setUp() {
+    assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+    threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+
+    // Errors are thrown without stack traces, which would dominate the cost of the error paths
+    retrofit = new Retrofit.Builder()
+      .baseUrl("http://localhost/")
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(new SynchronousCallAdapterFactory.Builder()
+        .stackTraces(false)
+        .build())
+      .build();
+    defaultRetrofit = new Retrofit.Builder()
+      .baseUrl("http://localhost/")
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create())
+      .build();
+  }
+
+  @Test public void bodySuccess() throws Exception {
+    CallAdapter<String, Object> adapter = adapter("body");
+    StubCall<String> call = StubCall.success(Response.success("Hi"));
+
+    assertBudget("body success", 8L, () -> adapter.adapt(call));
+  }
+
+  @Test public void responseSuccess() throws Exception {
+    CallAdapter<String, Object> adapter = adapter("response");
+    StubCall<String> call = StubCall.success(Response.success("Hi"));
+
+    // The Response<T> returned to the caller
+    assertBudget("Response<T> success", 32L, () -> adapter.adapt(call));
+  }
+
+  @Test public void responseHttpError() throws Exception {
+    CallAdapter<String, Object> adapter = adapter("response");
+    StubCall<String> call = StubCall.success(Response.error(500, errorBody()));
+
+    // The Response<T> returned to the caller, the empty error body is shared
+    assertBudget("Response<T> HTTP error", 32L, () -> adapter.adapt(call));
+  }
+
+  @Test public void bodyHttpError() throws Exception {
+    CallAdapter<String, Object> adapter = adapter("body");
+    StubCall<String> call = StubCall.success(Response.error(500, errorBody()));
+
+    // The exception and its message
+    assertBudget("body HTTP error", 384L, () -> {
+      try {
+        adapter.adapt(call);
+      } catch (SynchronousHttpException expected) {
+      }
+    });
+  }
+
+  @Test public void bodyIOException() throws Exception {
+    CallAdapter<String, Object> adapter = adapter("body");
+    StubCall<String> call = StubCall.failure(new IOException("broken"));
+
+    // The exception and its message
+    assertBudget("body IOException", 320L, () -> {
+      try {
+        adapter.adapt(call);
+      } catch (SynchronousNetworkException expected) {
+      }
+    });
+  }
+
+  @Test public void responseIOException() throws Exception {
+    CallAdapter<String, Object> adapter = adapter("response");
+    StubCall<String> call = StubCall.failure(new IOException("broken"));
+
+    // The exception and its message
+    assertBudget("Response<T> IOException", 320L, () -> {
+      try {
+        adapter.adapt(call);
+      } catch (SynchronousNetworkException expected) {
+      }
+    });
+  }
+
+  @Test public void defaultBodySuccess() throws Exception {
+    CallAdapter<String, Object> adapter = adapter(defaultRetrofit, "body");
+    StubCall<String> call = StubCall.success(Response.success("Hi"));
+
+    assertBudget("default body success", 8L, () -> adapter.adapt(call));
+  }
+
+  @Test public void defaultResponseSuccess() throws Exception {
+    CallAdapter<String, Object> adapter = adapter(defaultRetrofit, "response");
+    StubCall<String> call = StubCall.success(Response.success("Hi"));
+
+    // The Response<T> returned to the caller
+    assertBudget("default Response<T> success", 32L, () -> adapter.adapt(call));
+  }
+
+  @Test public void defaultResponseHttpError() throws Exception {
+    CallAdapter<String, Object> adapter = adapter(defaultRetrofit, "response");
+    StubCall<String> call = StubCall.success(Response.error(500, errorBody()));
+
+    // The Response<T> returned to the caller, the empty error body is shared
+    assertBudget("default Response<T> HTTP error", 32L, () -> adapter.adapt(call));
+  }
+
+  CallAdapter<String, Object> adapter(String name) throws NoSuchMethodException {
+    return adapter(retrofit, name);
+  }
+
+  @SuppressWarnings("unchecked") // Every adapter of Service adapts Call<String>.
+  static CallAdapter<String, Object> adapter(Retrofit retrofit, String name)
+    throws NoSuchMethodException {
+    Method method = Service.class.getDeclaredMethod(name);
+    return (CallAdapter<String, Object>) retrofit.callAdapter(method.getGenericReturnType(),
+      method.getAnnotations());
+  }
+
+  void assertBudget(String path, long budgetBytes, Runnable adapt) {
+    for (int i = 0; i < WARMUP; i++) {
+      adapt.run();
+    }
+    long threadId = Thread.currentThread().getId();
+    long before = threads.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < ITERATIONS; i++) {
+      adapt.run();
+    }
+    long bytesPerCall = (threads.getThreadAllocatedBytes(threadId) - before) / ITERATIONS;
+    assertWithMessage("bytes allocated per call on the %s path", path)
+      .that(bytesPerCall)
+      .isAtMost(budgetBytes);
+  }
+
+  @SuppressWarnings("deprecation")
+  static ResponseBody errorBody() {
+    return ResponseBody.create(MediaType.get("text/plain"), "Broken!");
+  }
+}
@@ -0,0 +1,167 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Converter;
+import retrofit2.HttpException;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.GET;
+import retrofit2.http.Path;
+
+public final class CacheableTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  private final AtomicInteger conversions = new AtomicInteger();
+  private Retrofit retrofit;
+  private Service service;
+
+  interface Service {
+    @Cacheable(ttl = 1, unit = TimeUnit.MINUTES) @GET("/{id}") String getString(
+      @Path("id") String id);
+
+    @Cacheable(ttl = 100, unit = TimeUnit.MILLISECONDS) @GET("/") String getShortLived();
+
+    @Cacheable(ttl = 1, unit = TimeUnit.MINUTES, maxEntries = 1) @GET("/{id}") String getSmall(
+      @Path("id") String id);
+  }
+
+  interface ResponseService {
+    @Cacheable(ttl = 1) @GET("/") Response<String> getResponse();
+  }
+
+  @Before public void setUp() {
+    retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory() {
+        @Override public Converter<ResponseBody, ?> responseBodyConverter(Type type,
+          Annotation[] annotations, Retrofit retrofit) {
+          return (Converter<ResponseBody, String>) value -> {
+            conversions.incrementAndGet();
+            return value.string();
+          };
+        }
+      })
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Test public void freshEntryIsReturnedWithoutRequest() {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    String first = service.getString("1");
+    String second = service.getString("1");
+
+    assertThat(second).isSameInstanceAs(first);
+    assertThat(server.getRequestCount()).isEqualTo(1);
+    assertThat(conversions.get()).isEqualTo(1);
+  }
+
+  @Test public void differentRequestsAreCachedSeparately() {
+    server.enqueue(new MockResponse().setBody("One"));
+    server.enqueue(new MockResponse().setBody("Two"));
+
+    assertThat(service.getString("1")).isEqualTo("One");
+    assertThat(service.getString("2")).isEqualTo("Two");
+    assertThat(service.getString("1")).isEqualTo("One");
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test public void notModifiedReturnsCachedBodyWithoutConversion() throws Exception {
+    server.enqueue(new MockResponse().setBody("Hi").addHeader("ETag", "\"v1\""));
+    server.enqueue(new MockResponse().setResponseCode(304));
+
+    String first = service.getShortLived();
+    Thread.sleep(150);
+    String second = service.getShortLived();
+
+    assertThat(second).isSameInstanceAs(first);
+    assertThat(conversions.get()).isEqualTo(1);
+    server.takeRequest();
+    RecordedRequest revalidation = server.takeRequest();
+    assertThat(revalidation.getHeader("If-None-Match")).isEqualTo("\"v1\"");
+  }
+
+  @Test public void modifiedReplacesCachedBody() throws Exception {
+    server.enqueue(new MockResponse().setBody("Hi")
+      .addHeader("Last-Modified", "Mon, 01 Jan 2024 00:00:00 GMT"));
+    server.enqueue(new MockResponse().setBody("Hello"));
+
+    assertThat(service.getShortLived()).isEqualTo("Hi");
+    Thread.sleep(150);
+    assertThat(service.getShortLived()).isEqualTo("Hello");
+
+    server.takeRequest();
+    RecordedRequest revalidation = server.takeRequest();
+    assertThat(revalidation.getHeader("If-Modified-Since"))
+      .isEqualTo("Mon, 01 Jan 2024 00:00:00 GMT");
+  }
+
+  @Test public void expiredEntryWithoutValidatorsIsFetchedAgain() throws Exception {
+    server.enqueue(new MockResponse().setBody("Hi"));
+    server.enqueue(new MockResponse().setBody("Hello"));
+
+    assertThat(service.getShortLived()).isEqualTo("Hi");
+    Thread.sleep(150);
+    assertThat(service.getShortLived()).isEqualTo("Hello");
+
+    server.takeRequest();
+    assertThat(server.takeRequest().getHeader("If-None-Match")).isNull();
+  }
+
+  @Test public void leastRecentlyUsedEntryIsEvicted() {
+    server.enqueue(new MockResponse().setBody("One"));
+    server.enqueue(new MockResponse().setBody("Two"));
+    server.enqueue(new MockResponse().setBody("One again"));
+
+    assertThat(service.getSmall("1")).isEqualTo("One");
+    assertThat(service.getSmall("2")).isEqualTo("Two");
+    assertThat(service.getSmall("1")).isEqualTo("One again");
+    assertThat(server.getRequestCount()).isEqualTo(3);
+  }
+
+  @Test public void noStoreIsNotCached() {
+    server.enqueue(new MockResponse().setBody("One").addHeader("Cache-Control", "no-store"));
+    server.enqueue(new MockResponse().setBody("Two"));
+
+    assertThat(service.getString("1")).isEqualTo("One");
+    assertThat(service.getString("1")).isEqualTo("Two");
+  }
+
+  @Test public void errorIsNotCached() {
+    server.enqueue(new MockResponse().setResponseCode(500));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    try {
+      service.getString("1");
+      fail();
+    } catch (HttpException e) {
+      assertThat(e.code()).isEqualTo(500);
+    }
+    assertThat(service.getString("1")).isEqualTo("Hi");
+  }
+
+  @Test public void responseTypeThrows() {
+    ResponseService service = retrofit.create(ResponseService.class);
+    try {
+      service.getResponse();
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasCauseThat().hasMessageThat().isEqualTo(
+        "@Cacheable is not supported on Response<T> return types");
+    }
+  }
+}
@@ -0,0 +1,290 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static okhttp3.mockwebserver.SocketPolicy.DISCONNECT_AFTER_REQUEST;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.Range;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Converter;
+import retrofit2.HttpException;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.GET;
+import retrofit2.http.POST;
+import retrofit2.http.Path;
+
+public final class CallMetricsListenerTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  private final RecordingListener listener = new RecordingListener();
+  private final HistogramMetricsListener histogram = new HistogramMetricsListener();
+  private Service service;
+  private Service histogramService;
+
+  interface Service {
+    @GET("user/{id}") String getString(@Path("id") String id);
+
+    @POST("/") Response<String> postResponse();
+
+    @Retry(initialBackoff = 1, maxBackoff = 1)
+    @GET("/") String getStringWithRetry();
+
+    @GET("/") String getRoot();
+
+    @GET("/") String getRootAgain();
+  }
+
+  @Before public void setUp() {
+    Retrofit retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create(listener)) // Add synchronous adapter
+      .build();
+    service = retrofit.create(Service.class);
+
+    histogramService = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create(histogram))
+      .build()
+      .create(Service.class);
+  }
+
+  @Test public void successReportsStartAndResponse() {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    assertThat(service.getString("1")).isEqualTo("Hi");
+
+    assertThat(listener.events).containsExactly("callStart GET user/{id}",
+      "responseReceived GET user/{id} 200").inOrder();
+  }
+
+  @Test public void httpErrorReportsStartAndHttpError() {
+    server.enqueue(new MockResponse().setResponseCode(404).setBody("Hi"));
+
+    try {
+      service.getString("1");
+      fail();
+    } catch (HttpException e) {
+      assertThat(e.code()).isEqualTo(404);
+    }
+
+    assertThat(listener.events).containsExactly("callStart GET user/{id}",
+      "httpError GET user/{id} 404").inOrder();
+  }
+
+  @Test public void responseHttpErrorReportsHttpError() {
+    server.enqueue(new MockResponse().setResponseCode(500).setBody("Hi"));
+
+    assertThat(service.postResponse().code()).isEqualTo(500);
+
+    assertThat(listener.events).containsExactly("callStart POST /", "httpError POST / 500")
+      .inOrder();
+  }
+
+  @Test public void networkErrorReportsIoException() {
+    server.enqueue(new MockResponse().setSocketPolicy(DISCONNECT_AFTER_REQUEST));
+
+    try {
+      service.getString("1");
+      fail();
+    } catch (RuntimeException e) {
+      assertThat(e).hasCauseThat().isInstanceOf(IOException.class);
+    }
+
+    assertThat(listener.events).containsExactly("callStart GET user/{id}",
+      "ioException GET user/{id}").inOrder();
+  }
+
+  @Test public void converterFailureReportsFailure() {
+    HistogramMetricsListener histogram = new HistogramMetricsListener();
+    Retrofit retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory() {
+        @Override
+        public Converter<ResponseBody, ?> responseBodyConverter(Type type,
+          Annotation[] annotations, Retrofit retrofit) {
+          return (Converter<ResponseBody, String>) value -> {
+            throw new UnsupportedOperationException("I am broken!");
+          };
+        }
+      })
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create(histogram))
+      .build();
+    Service example = retrofit.create(Service.class);
+
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    try {
+      example.getString("1");
+      fail();
+    } catch (UnsupportedOperationException e) {
+      assertThat(e).hasMessageThat().isEqualTo("I am broken!");
+    }
+
+    HistogramMetricsListener.Snapshot snapshot = histogram.snapshot().values().iterator().next();
+    assertThat(snapshot.started()).isEqualTo(1);
+    assertThat(snapshot.failures()).isEqualTo(1);
+    assertThat(snapshot.completed()).isEqualTo(1);
+  }
+
+  @Test public void retriedCallIsReportedOnce() {
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    assertThat(service.getStringWithRetry()).isEqualTo("Hi");
+
+    assertThat(server.getRequestCount()).isEqualTo(2);
+    assertThat(listener.events).containsExactly("callStart GET /", "responseReceived GET / 200")
+      .inOrder();
+  }
+
+  @Test public void methodDescriptorIsSharedBetweenCalls() {
+    server.enqueue(new MockResponse().setBody("Hi"));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    service.getString("1");
+    service.getString("2");
+
+    assertThat(listener.methods).hasSize(4);
+    assertThat(listener.methods.get(0)).isSameInstanceAs(listener.methods.get(3));
+    assertThat(listener.methods.get(0).returnType()).isEqualTo(String.class);
+  }
+
+  @Test public void histogramRecordsCountersAndLatency() {
+    server.enqueue(new MockResponse().setBody("Hi").setHeadersDelay(100, MILLISECONDS));
+    server.enqueue(new MockResponse().setResponseCode(404));
+    server.enqueue(new MockResponse().setSocketPolicy(DISCONNECT_AFTER_REQUEST));
+
+    histogramService.getString("1");
+    try {
+      histogramService.getString("2");
+      fail();
+    } catch (HttpException ignored) {
+    }
+    try {
+      histogramService.getString("3");
+      fail();
+    } catch (RuntimeException ignored) {
+    }
+
+    Map<MethodDescriptor, HistogramMetricsListener.Snapshot> snapshots = histogram.snapshot();
+    assertThat(snapshots).hasSize(1);
+    MethodDescriptor method = snapshots.keySet().iterator().next();
+    assertThat(method.toString()).isEqualTo("GET user/{id}");
+
+    HistogramMetricsListener.Snapshot snapshot = snapshots.get(method);
+    assertThat(snapshot.started()).isEqualTo(3);
+    assertThat(snapshot.succeeded()).isEqualTo(1);
+    assertThat(snapshot.httpErrors()).isEqualTo(1);
+    assertThat(snapshot.ioExceptions()).isEqualTo(1);
+    assertThat(snapshot.completed()).isEqualTo(3);
+    assertThat(snapshot.maxNanos()).isAtLeast(MILLISECONDS.toNanos(100));
+    assertThat(snapshot.percentileNanos(100.0)).isEqualTo(snapshot.maxNanos());
+    assertThat(snapshot.percentileNanos(0.0)).isAtMost(snapshot.percentileNanos(100.0));
+  }
+
+  @Test public void methodsWithSameRouteAreRecordedApart() {
+    server.enqueue(new MockResponse().setBody("Hi"));
+    server.enqueue(new MockResponse().setBody("Hi"));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    histogramService.getRoot();
+    histogramService.getRoot();
+    histogramService.getRootAgain();
+
+    Map<String, Long> started = new LinkedHashMap<>();
+    for (Map.Entry<MethodDescriptor, HistogramMetricsListener.Snapshot> entry
+      : histogram.snapshot().entrySet()) {
+      assertThat(entry.getKey().toString()).isEqualTo("GET /");
+      started.put(entry.getKey().name(), entry.getValue().started());
+    }
+    assertThat(started).containsExactly(
+      Service.class.getName() + ".getRoot", 2L,
+      Service.class.getName() + ".getRootAgain", 1L);
+  }
+
+  @Test public void histogramBucketsCoverEveryValue() {
+    assertThat(HistogramMetricsListener.bucket(0)).isEqualTo(0);
+    assertThat(HistogramMetricsListener.bucket(Long.MAX_VALUE))
+      .isEqualTo(HistogramMetricsListener.BUCKETS - 1);
+
+    for (int bucket = 0; bucket < HistogramMetricsListener.BUCKETS; bucket++) {
+      long lowest = HistogramMetricsListener.lowestValue(bucket);
+      long highest = HistogramMetricsListener.highestValue(bucket);
+      assertThat(HistogramMetricsListener.bucket(lowest)).isEqualTo(bucket);
+      assertThat(HistogramMetricsListener.bucket(highest)).isEqualTo(bucket);
+      // Buckets are never wider than a quarter of their values
+      assertThat(highest - lowest).isAtMost(Math.max(0, lowest / 4));
+    }
+  }
+
+  @Test public void histogramPercentiles() {
+    HistogramMetricsListener listener = new HistogramMetricsListener(1);
+    MethodDescriptor method = new MethodDescriptor("GET", "/", String.class);
+    for (int i = 1; i <= 100; i++) {
+      listener.responseReceived(method, Response.success("Hi"), MILLISECONDS.toNanos(i));
+    }
+
+    HistogramMetricsListener.Snapshot snapshot = listener.snapshot(method);
+    assertThat(snapshot.percentileNanos(50.0)).isIn(range(MILLISECONDS.toNanos(50)));
+    assertThat(snapshot.percentileNanos(99.0)).isIn(range(MILLISECONDS.toNanos(99)));
+    assertThat(snapshot.percentileNanos(100.0)).isEqualTo(MILLISECONDS.toNanos(100));
+    assertThat(snapshot.meanNanos()).isEqualTo(MILLISECONDS.toNanos(101) / 2);
+    assertThat(listener.snapshot(new MethodDescriptor("POST", "/", String.class))).isNull();
+  }
+
+  private static Range<Long> range(long value) {
+    return Range.closed(value, value + value / 4);
+  }
+
+  static final class RecordingListener implements CallMetricsListener {
+    final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+    final List<MethodDescriptor> methods =
+      Collections.synchronizedList(new ArrayList<MethodDescriptor>());
+
+    @Override public void callStart(MethodDescriptor method) {
+      methods.add(method);
+      events.add("callStart " + method);
+    }
+
+    @Override public void responseReceived(MethodDescriptor method, Response<?> response,
+      long durationNanos) {
+      methods.add(method);
+      events.add("responseReceived " + method + " " + response.code());
+    }
+
+    @Override public void httpError(MethodDescriptor method, Response<?> response,
+      long durationNanos) {
+      methods.add(method);
+      events.add("httpError " + method + " " + response.code());
+    }
+
+    @Override public void ioException(MethodDescriptor method, IOException e,
+      long durationNanos) {
+      methods.add(method);
+      events.add("ioException " + method);
+    }
+
+    @Override public void failure(MethodDescriptor method, RuntimeException e,
+      long durationNanos) {
+      methods.add(method);
+      events.add("failure " + method);
+    }
+  }
+}
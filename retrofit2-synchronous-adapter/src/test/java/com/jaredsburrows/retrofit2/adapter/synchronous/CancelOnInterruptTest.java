@@ -0,0 +1,105 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.GET;
+
+public final class CancelOnInterruptTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private Service service;
+
+  interface Service {
+    @GET("/hang") String getHanging();
+
+    @GET("/hang") Response<String> getHangingResponse();
+
+    @GET("/") String getString();
+  }
+
+  @Before public void setUp() {
+    server.setDispatcher(new Dispatcher() {
+      @Override public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+        if (request.getPath().startsWith("/hang")) {
+          release.await();
+        }
+        return new MockResponse().setBody("Hi");
+      }
+    });
+    Retrofit retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(new SynchronousCallAdapterFactory.Builder()
+        .cancelOnInterrupt(true)
+        .build())
+      .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @After public void tearDown() {
+    release.countDown();
+  }
+
+  @Test public void interruptingPlatformThreadCancelsBodyCall() throws Exception {
+    assertInterruptCancels(service::getHanging);
+  }
+
+  @Test public void interruptingPlatformThreadCancelsResponseCall() throws Exception {
+    assertInterruptCancels(service::getHangingResponse);
+  }
+
+  @Test public void interruptedThreadDoesNotExecuteCall() {
+    Thread.currentThread().interrupt();
+    try {
+      service.getString();
+      fail();
+    } catch (SynchronousCanceledException expected) {
+      assertThat(Thread.interrupted()).isTrue();
+    }
+    assertThat(server.getRequestCount()).isEqualTo(0);
+  }
+
+  @Test public void callsWithoutInterruptionSucceed() {
+    assertThat(service.getString()).isEqualTo("Hi");
+  }
+
+  private void assertInterruptCancels(Runnable call) throws Exception {
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    AtomicBoolean interrupted = new AtomicBoolean();
+    Thread thread = new Thread(() -> {
+      try {
+        call.run();
+      } catch (Throwable t) {
+        failure.set(t);
+        interrupted.set(Thread.currentThread().isInterrupted());
+      }
+    });
+    thread.start();
+
+    server.takeRequest(5, TimeUnit.SECONDS);
+    long start = System.nanoTime();
+    thread.interrupt();
+    thread.join(TimeUnit.SECONDS.toMillis(5));
+
+    assertThat(thread.isAlive()).isFalse();
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5_000L);
+    assertThat(failure.get()).isInstanceOf(SynchronousCanceledException.class);
+    assertThat(interrupted.get()).isTrue();
+  }
+}
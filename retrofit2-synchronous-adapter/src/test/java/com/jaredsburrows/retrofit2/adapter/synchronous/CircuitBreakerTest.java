@@ -0,0 +1,256 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.HttpException;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.GET;
+
+public final class CircuitBreakerTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  private Retrofit retrofit;
+  private Service service;
+
+  interface Service {
+    @CircuitBreaker(slidingWindowSize = 4, minimumCalls = 2, waitInOpenState = 1,
+      unit = TimeUnit.HOURS)
+    @GET("/") String getString();
+
+    @CircuitBreaker(slidingWindowSize = 4, minimumCalls = 2, waitInOpenState = 1,
+      unit = TimeUnit.HOURS)
+    @GET("/") Response<String> getResponse();
+
+    @CircuitBreaker(slidingWindowSize = 2, minimumCalls = 2, waitInOpenState = 100,
+      permittedCallsInHalfOpenState = 1)
+    @GET("/") String getStringWithShortWait();
+
+    @CircuitBreaker(slidingWindowSize = 1, minimumCalls = 1, slowCallDuration = 50,
+      waitInOpenState = 3_600_000)
+    @GET("/") String getStringWithSlowCallDuration();
+
+    @CircuitBreaker(minimumCalls = 2, scope = CircuitBreaker.Scope.HOST)
+    @GET("/a") String getA();
+
+    @CircuitBreaker(minimumCalls = 2, scope = CircuitBreaker.Scope.HOST)
+    @GET("/b") String getB();
+  }
+
+  interface InvalidService {
+    @CircuitBreaker(failureRateThreshold = 0)
+    @GET("/") String getString();
+  }
+
+  @Before public void setUp() {
+    retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Test public void failuresOpenBreaker() {
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setResponseCode(500));
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        service.getString();
+        fail();
+      } catch (HttpException expected) {
+      }
+    }
+
+    try {
+      service.getString();
+      fail();
+    } catch (CircuitBreakerOpenException e) {
+      assertThat(e).hasMessageThat().isEqualTo("Circuit breaker is open for GET /");
+    }
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @SuppressWarnings("try") // The scope is only opened to be closed.
+  @Test public void deadlineRejectionsDoNotOpenBreaker() {
+    for (int i = 0; i < 3; i++) {
+      try (Deadline.Scope ignored = Deadline.after(0, TimeUnit.SECONDS).attach()) {
+        service.getString();
+        fail();
+      } catch (SynchronousTimeoutException expected) {
+      }
+    }
+
+    server.enqueue(new MockResponse().setBody("Hi"));
+    assertThat(service.getString()).isEqualTo("Hi");
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void interruptedCallsDoNotOpenBreaker() {
+    Service interruptible = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(new SynchronousCallAdapterFactory.Builder()
+        .cancelOnInterrupt(true)
+        .build())
+      .build()
+      .create(Service.class);
+
+    for (int i = 0; i < 3; i++) {
+      Thread.currentThread().interrupt();
+      try {
+        interruptible.getString();
+        fail();
+      } catch (SynchronousCanceledException expected) {
+        assertThat(Thread.interrupted()).isTrue();
+      }
+    }
+
+    server.enqueue(new MockResponse().setBody("Hi"));
+    assertThat(interruptible.getString()).isEqualTo("Hi");
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void successesKeepBreakerClosed() {
+    server.enqueue(new MockResponse().setBody("Hi"));
+    server.enqueue(new MockResponse().setBody("Hi"));
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    assertThat(service.getString()).isEqualTo("Hi");
+    assertThat(service.getString()).isEqualTo("Hi");
+    try {
+      service.getString();
+      fail();
+    } catch (HttpException expected) {
+    }
+    assertThat(service.getString()).isEqualTo("Hi");
+  }
+
+  @Test public void clientErrorsAreNotFailures() {
+    for (int i = 0; i < 3; i++) {
+      server.enqueue(new MockResponse().setResponseCode(404));
+    }
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(service.getResponse().code()).isEqualTo(404);
+    }
+    assertThat(server.getRequestCount()).isEqualTo(3);
+  }
+
+  @Test public void responseFailuresOpenBreaker() {
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setResponseCode(503));
+
+    assertThat(service.getResponse().code()).isEqualTo(503);
+    assertThat(service.getResponse().code()).isEqualTo(503);
+
+    try {
+      service.getResponse();
+      fail();
+    } catch (CircuitBreakerOpenException expected) {
+    }
+  }
+
+  @Test public void successfulProbeClosesBreaker() throws InterruptedException {
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setBody("Probe"));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    openShortWaitBreaker();
+    Thread.sleep(150);
+
+    assertThat(service.getStringWithShortWait()).isEqualTo("Probe");
+    assertThat(service.getStringWithShortWait()).isEqualTo("Hi");
+  }
+
+  @Test public void failedProbeOpensBreakerAgain() throws InterruptedException {
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setResponseCode(503));
+
+    openShortWaitBreaker();
+    Thread.sleep(150);
+
+    try {
+      service.getStringWithShortWait();
+      fail();
+    } catch (HttpException expected) {
+    }
+    try {
+      service.getStringWithShortWait();
+      fail();
+    } catch (CircuitBreakerOpenException expected) {
+    }
+    assertThat(server.getRequestCount()).isEqualTo(3);
+  }
+
+  @Test public void slowCallsOpenBreaker() {
+    server.enqueue(new MockResponse().setBody("Slow")
+      .setHeadersDelay(100, TimeUnit.MILLISECONDS));
+
+    assertThat(service.getStringWithSlowCallDuration()).isEqualTo("Slow");
+
+    try {
+      service.getStringWithSlowCallDuration();
+      fail();
+    } catch (CircuitBreakerOpenException expected) {
+    }
+  }
+
+  @Test public void hostScopeIsSharedBetweenMethods() {
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setResponseCode(503));
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        service.getA();
+        fail();
+      } catch (HttpException expected) {
+      }
+    }
+
+    try {
+      service.getB();
+      fail();
+    } catch (CircuitBreakerOpenException e) {
+      assertThat(e).hasMessageThat()
+        .isEqualTo("Circuit breaker is open for " + server.url("/").host());
+    }
+  }
+
+  @Test public void invalidThresholdThrows() {
+    InvalidService invalid = retrofit.create(InvalidService.class);
+    try {
+      invalid.getString();
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasCauseThat().hasMessageThat()
+        .isEqualTo("@CircuitBreaker failureRateThreshold must be between 1 and 100");
+    }
+  }
+
+  private void openShortWaitBreaker() {
+    for (int i = 0; i < 2; i++) {
+      try {
+        service.getStringWithShortWait();
+        fail();
+      } catch (HttpException expected) {
+      }
+    }
+    try {
+      service.getStringWithShortWait();
+      fail();
+    } catch (CircuitBreakerOpenException expected) {
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.HttpException;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.GET;
+import retrofit2.http.Header;
+import retrofit2.http.Path;
+
+public final class CoalesceTest {
+  private static final int THREADS = 8;
+
+  @Rule public final MockWebServer server = new MockWebServer();
+  private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+  private Retrofit retrofit;
+  private Service service;
+
+  interface Service {
+    @Coalesce @GET("/{id}") String getString(@Path("id") String id);
+
+    @Coalesce(headers = "Authorization")
+    @GET("/") String getStringForUser(@Header("Authorization") String user,
+      @Header("X-Request-Id") String requestId);
+  }
+
+  interface ResponseService {
+    @Coalesce @GET("/") Response<String> getResponse();
+  }
+
+  @Before public void setUp() {
+    retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @After public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test public void concurrentIdenticalCallsShareOneExecution() throws Exception {
+    server.enqueue(new MockResponse().setBody("Hi").setHeadersDelay(500, TimeUnit.MILLISECONDS));
+
+    List<String> results = runConcurrently(() -> service.getString("1"));
+
+    assertThat(results).containsExactlyElementsIn(Collections.nCopies(THREADS, "Hi"));
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void differentUrlsAreNotShared() {
+    server.enqueue(new MockResponse().setBody("One"));
+    server.enqueue(new MockResponse().setBody("Two"));
+
+    assertThat(service.getString("1")).isEqualTo("One");
+    assertThat(service.getString("2")).isEqualTo("Two");
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test public void sequentialCallsAreNotShared() {
+    server.enqueue(new MockResponse().setBody("One"));
+    server.enqueue(new MockResponse().setBody("Two"));
+
+    assertThat(service.getString("1")).isEqualTo("One");
+    assertThat(service.getString("1")).isEqualTo("Two");
+  }
+
+  @Test public void onlyListedHeadersAreCompared() throws Exception {
+    server.enqueue(new MockResponse().setBody("Hi").setHeadersDelay(500, TimeUnit.MILLISECONDS));
+
+    List<String> results = runConcurrently(
+      () -> service.getStringForUser("alice", Thread.currentThread().getName()));
+
+    assertThat(results).containsExactlyElementsIn(Collections.nCopies(THREADS, "Hi"));
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void failureIsShared() throws Exception {
+    server.enqueue(new MockResponse().setResponseCode(404)
+      .setHeadersDelay(500, TimeUnit.MILLISECONDS));
+
+    List<String> results = runConcurrently(() -> {
+      try {
+        return service.getString("1");
+      } catch (HttpException e) {
+        return "HTTP " + e.code();
+      }
+    });
+
+    assertThat(results).containsExactlyElementsIn(Collections.nCopies(THREADS, "HTTP 404"));
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test
+  @SuppressWarnings("try") // The scope is only opened to be closed.
+  public void waitForSharedCallIsBoundedByDeadline() throws Exception {
+    server.enqueue(new MockResponse().setBody("Hi").setHeadersDelay(2, TimeUnit.SECONDS));
+    Future<String> leader = executor.submit(() -> service.getString("1"));
+    server.takeRequest();
+
+    long start = System.nanoTime();
+    try (Deadline.Scope scope = Deadline.after(100, TimeUnit.MILLISECONDS).attach()) {
+      service.getString("1");
+      fail();
+    } catch (SynchronousTimeoutException expected) {
+    }
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_000L);
+
+    assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("Hi");
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void responseTypeThrows() {
+    ResponseService service = retrofit.create(ResponseService.class);
+    try {
+      service.getResponse();
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasCauseThat().hasMessageThat().isEqualTo(
+        "@Coalesce is not supported on Response<T> return types");
+    }
+  }
+
+  private List<String> runConcurrently(Callable<String> task) throws Exception {
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<String>> futures = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        return task.call();
+      }));
+    }
+    start.countDown();
+
+    List<String> results = new ArrayList<>();
+    for (Future<String> future : futures) {
+      results.add(future.get(5, TimeUnit.SECONDS));
+    }
+    return results;
+  }
+}
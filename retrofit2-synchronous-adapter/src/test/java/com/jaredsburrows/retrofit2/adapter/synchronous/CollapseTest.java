@@ -0,0 +1,174 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+import retrofit2.http.GET;
+import retrofit2.http.Path;
+import retrofit2.http.Query;
+
+public final class CollapseTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private Retrofit retrofit;
+  private Service service;
+
+  static final class User {
+    String name;
+  }
+
+  interface Service {
+    @Collapse(bulk = "getUsers", window = 500)
+    @GET("/users/{id}") User getUser(@Path("id") String id);
+
+    @Collapse(bulk = "getUsers", window = 5, unit = TimeUnit.SECONDS, maxBatchSize = 2)
+    @GET("/users/{id}") User getUserInPairs(@Path("id") String id);
+
+    @Collapse(bulk = "getUsersBySet", window = 0)
+    @GET("/users/{id}") User getUserWithSet(@Path("id") String id);
+
+    @Collapse(bulk = "getMissing")
+    @GET("/users/{id}") User getUserWithoutBulk(@Path("id") String id);
+
+    @GET("/users") Map<String, User> getUsers(@Query("id") List<String> ids);
+
+    @GET("/users") Map<String, User> getUsersBySet(@Query("id") Set<String> ids);
+  }
+
+  interface InvalidService {
+    @Collapse(bulk = "getUsers", window = -1)
+    @GET("/users/{id}") User getUser(@Path("id") String id);
+  }
+
+  @Before public void setUp() {
+    // Returns a user for every requested id, except "missing"
+    server.setDispatcher(new Dispatcher() {
+      @Override public MockResponse dispatch(RecordedRequest request) {
+        HttpUrl url = request.getRequestUrl();
+        if (url.queryParameterValues("id").contains("fail")) {
+          return new MockResponse().setResponseCode(500);
+        }
+        StringBuilder body = new StringBuilder("{");
+        for (String id : url.queryParameterValues("id")) {
+          if (!id.equals("missing")) {
+            body.append(body.length() > 1 ? "," : "")
+              .append('"').append(id).append("\": {\"name\": \"user ").append(id).append("\"}");
+          }
+        }
+        return new MockResponse().setBody(body.append('}').toString());
+      }
+    });
+    retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(GsonConverterFactory.create())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @After public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test public void concurrentCallsAreCollapsed() throws Exception {
+    List<Future<User>> users = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      String id = String.valueOf(i);
+      users.add(executor.submit(() -> service.getUser(id)));
+    }
+
+    for (int i = 0; i < 5; i++) {
+      assertThat(users.get(i).get(5, TimeUnit.SECONDS).name).isEqualTo("user " + i);
+    }
+    assertThat(server.getRequestCount()).isEqualTo(1);
+    assertThat(server.takeRequest().getRequestUrl().queryParameterValues("id"))
+      .containsExactly("0", "1", "2", "3", "4");
+  }
+
+  @Test public void duplicateKeysAreRequestedOnce() throws Exception {
+    Future<User> first = executor.submit(() -> service.getUser("1"));
+    Future<User> second = executor.submit(() -> service.getUser("1"));
+
+    assertThat(first.get(5, TimeUnit.SECONDS).name).isEqualTo("user 1");
+    assertThat(second.get(5, TimeUnit.SECONDS).name).isEqualTo("user 1");
+    assertThat(server.takeRequest().getRequestUrl().queryParameterValues("id"))
+      .containsExactly("1");
+  }
+
+  @Test public void fullBatchIsCalledWithoutWaitingForWindow() throws Exception {
+    long start = System.nanoTime();
+    List<Future<User>> users = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      String id = String.valueOf(i);
+      users.add(executor.submit(() -> service.getUserInPairs(id)));
+    }
+
+    for (int i = 0; i < 4; i++) {
+      assertThat(users.get(i).get(5, TimeUnit.SECONDS).name).isEqualTo("user " + i);
+    }
+    assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(4));
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test public void missingKeyIsNull() {
+    assertThat(service.getUserWithSet("missing")).isNull();
+    assertThat(service.getUserWithSet("1").name).isEqualTo("user 1");
+  }
+
+  @Test public void bulkFailureIsThrownToEveryCaller() throws Exception {
+    Future<User> first = executor.submit(() -> service.getUser("1"));
+    Future<User> second = executor.submit(() -> service.getUser("fail"));
+
+    for (Future<User> user : Arrays.asList(first, second)) {
+      try {
+        user.get(5, TimeUnit.SECONDS);
+        fail();
+      } catch (ExecutionException e) {
+        assertThat(e).hasCauseThat().isInstanceOf(SynchronousHttpException.class);
+      }
+    }
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void missingBulkMethodThrows() {
+    try {
+      service.getUserWithoutBulk("1");
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessageThat().isEqualTo("@Collapse bulk method getMissing with one"
+        + " parameter not found on " + Service.class.getName());
+    }
+  }
+
+  @Test public void negativeWindowThrows() {
+    InvalidService invalid = retrofit.create(InvalidService.class);
+    try {
+      invalid.getUser("1");
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasCauseThat().hasMessageThat()
+        .isEqualTo("@Collapse window must not be negative");
+    }
+  }
+}
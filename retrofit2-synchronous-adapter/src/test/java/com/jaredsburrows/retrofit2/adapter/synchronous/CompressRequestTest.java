@@ -0,0 +1,136 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.GzipSource;
+import okio.Okio;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Retrofit;
+import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.Body;
+import retrofit2.http.Headers;
+import retrofit2.http.POST;
+
+public final class CompressRequestTest {
+  private static final String LARGE = repeat("{\"name\": \"Jake\"}", 1_000);
+
+  @Rule public final MockWebServer server = new MockWebServer();
+  private Retrofit retrofit;
+  private Service service;
+
+  interface Service {
+    @CompressRequest
+    @POST("/") String upload(@Body String body);
+
+    @CompressRequest(minBytes = 0)
+    @POST("/") String uploadAll(@Body String body);
+
+    @POST("/") String uploadUncompressed(@Body String body);
+
+    @CompressRequest
+    @Headers("Content-Encoding: br")
+    @POST("/") String uploadEncoded(@Body String body);
+  }
+
+  interface InvalidService {
+    @CompressRequest(minBytes = -1)
+    @POST("/") String upload(@Body String body);
+  }
+
+  @Before public void setUp() {
+    OkHttpClient client = new OkHttpClient.Builder()
+      .addInterceptor(SynchronousCallAdapterFactory.requestCompression())
+      .build();
+    retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .client(client)
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Test public void largeBodyIsCompressed() throws Exception {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    assertThat(service.upload(LARGE)).isEqualTo("Hi");
+
+    RecordedRequest request = server.takeRequest();
+    assertThat(request.getHeader("Content-Encoding")).isEqualTo("gzip");
+    assertThat(request.getHeader("Content-Type")).isEqualTo("text/plain; charset=utf-8");
+    assertThat(request.getBodySize()).isLessThan((long) LARGE.length());
+    assertThat(gunzip(request.getBody())).isEqualTo(LARGE);
+  }
+
+  @Test public void smallBodyIsNotCompressed() throws Exception {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    service.upload("{\"name\": \"Jake\"}");
+
+    RecordedRequest request = server.takeRequest();
+    assertThat(request.getHeader("Content-Encoding")).isNull();
+    assertThat(request.getBody().readUtf8()).isEqualTo("{\"name\": \"Jake\"}");
+  }
+
+  @Test public void minBytesIsConfigurable() throws Exception {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    service.uploadAll("{\"name\": \"Jake\"}");
+
+    RecordedRequest request = server.takeRequest();
+    assertThat(request.getHeader("Content-Encoding")).isEqualTo("gzip");
+    assertThat(gunzip(request.getBody())).isEqualTo("{\"name\": \"Jake\"}");
+  }
+
+  @Test public void methodsWithoutCompressRequestAreNotCompressed() throws Exception {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    service.uploadUncompressed(LARGE);
+
+    RecordedRequest request = server.takeRequest();
+    assertThat(request.getHeader("Content-Encoding")).isNull();
+    assertThat(request.getBody().readUtf8()).isEqualTo(LARGE);
+  }
+
+  @Test public void encodedBodyIsNotCompressedAgain() throws Exception {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    service.uploadEncoded(LARGE);
+
+    RecordedRequest request = server.takeRequest();
+    assertThat(request.getHeader("Content-Encoding")).isEqualTo("br");
+    assertThat(request.getBody().readUtf8()).isEqualTo(LARGE);
+  }
+
+  @Test public void negativeMinBytesThrows() {
+    InvalidService invalid = retrofit.create(InvalidService.class);
+    try {
+      invalid.upload(LARGE);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasCauseThat().hasMessageThat()
+        .isEqualTo("@CompressRequest minBytes must not be negative");
+    }
+  }
+
+  private static String gunzip(Buffer body) throws IOException {
+    return Okio.buffer(new GzipSource(body)).readUtf8();
+  }
+
+  private static String repeat(String value, int count) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      builder.append(value);
+    }
+    return builder.toString();
+  }
+}
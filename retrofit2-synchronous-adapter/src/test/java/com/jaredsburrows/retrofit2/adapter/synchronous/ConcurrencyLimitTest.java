@@ -0,0 +1,157 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Call;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.GET;
+
+public final class ConcurrencyLimitTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private Retrofit retrofit;
+  private Service service;
+
+  interface Service {
+    @ConcurrencyLimit(initialLimit = 1, maxLimit = 1)
+    @GET("/") String getString();
+
+    @ConcurrencyLimit(initialLimit = 1, maxLimit = 1, maxWait = 5_000)
+    @GET("/") String getStringWithWait();
+
+    @ConcurrencyLimit(initialLimit = 10, maxLimit = 12)
+    @GET("/") String getStringWithAdaptiveLimit();
+  }
+
+  interface InvalidService {
+    @ConcurrencyLimit(initialLimit = 10, maxLimit = 5)
+    @GET("/") String getString();
+  }
+
+  @Before public void setUp() {
+    retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @After public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test public void callOverLimitIsRejected() throws Exception {
+    server.enqueue(new MockResponse().setBody("Slow")
+      .setHeadersDelay(500, TimeUnit.MILLISECONDS));
+
+    Future<String> slow = executor.submit(() -> service.getString());
+    server.takeRequest();
+
+    try {
+      service.getString();
+      fail();
+    } catch (ConcurrencyLimitException e) {
+      assertThat(e).hasMessageThat().isEqualTo("Concurrency limit of 1 reached for GET /");
+    }
+    assertThat(slow.get()).isEqualTo("Slow");
+  }
+
+  @Test public void callOverLimitWaitsForSlot() throws Exception {
+    server.enqueue(new MockResponse().setBody("Slow")
+      .setHeadersDelay(300, TimeUnit.MILLISECONDS));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    Future<String> slow = executor.submit(() -> service.getStringWithWait());
+    server.takeRequest();
+
+    assertThat(service.getStringWithWait()).isEqualTo("Hi");
+    assertThat(slow.get()).isEqualTo("Slow");
+  }
+
+  @Test
+  @SuppressWarnings("try") // The scope is only opened to be closed.
+  public void waitForSlotIsBoundedByDeadline() throws Exception {
+    server.enqueue(new MockResponse().setBody("Slow")
+      .setHeadersDelay(2, TimeUnit.SECONDS));
+
+    Future<String> slow = executor.submit(() -> service.getStringWithWait());
+    server.takeRequest();
+
+    long start = System.nanoTime();
+    try (Deadline.Scope scope = Deadline.after(100, TimeUnit.MILLISECONDS).attach()) {
+      service.getStringWithWait();
+      fail();
+    } catch (SynchronousTimeoutException expected) {
+    }
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_000L);
+    assertThat(slow.get()).isEqualTo("Slow");
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void slotIsReleasedAfterCall() {
+    server.enqueue(new MockResponse().setBody("Hi"));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    assertThat(service.getString()).isEqualTo("Hi");
+    assertThat(service.getString()).isEqualTo("Hi");
+  }
+
+  @Test public void limitDecreasesOnDropsAndRecovers() throws Exception {
+    StubExecutor stub = new StubExecutor();
+    LimitingCallExecutor limiter = LimitingCallExecutor.create(stub,
+      Service.class.getMethod("getStringWithAdaptiveLimit").getAnnotation(ConcurrencyLimit.class),
+      new MethodDescriptor("GET", "/", String.class), Exceptions.DEFAULT);
+    assertThat(limiter.limit()).isEqualTo(10);
+
+    stub.code = 503;
+    for (int i = 0; i < 30; i++) {
+      limiter.execute(null);
+    }
+    assertThat(limiter.limit()).isEqualTo(1);
+
+    // The limit only grows while at least half of it is used, which one thread does up to 2
+    stub.code = 200;
+    for (int i = 0; i < 10; i++) {
+      limiter.execute(null);
+    }
+    assertThat(limiter.limit()).isEqualTo(2);
+  }
+
+  @Test public void invalidLimitsThrow() {
+    InvalidService invalid = retrofit.create(InvalidService.class);
+    try {
+      invalid.getString();
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasCauseThat().hasMessageThat()
+        .isEqualTo("@ConcurrencyLimit must satisfy 1 <= minLimit <= initialLimit <= maxLimit");
+    }
+  }
+
+  static final class StubExecutor implements CallExecutor {
+    int code = 200;
+
+    @Override public <R> Response<R> execute(Call<R> call) throws IOException {
+      if (code == 200) {
+        return Response.success(null);
+      }
+      return Response.error(code, ResponseBody.create("", null));
+    }
+  }
+}
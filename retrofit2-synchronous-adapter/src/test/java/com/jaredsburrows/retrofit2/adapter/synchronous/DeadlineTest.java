@@ -0,0 +1,184 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.HttpException;
+import retrofit2.Retrofit;
+import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.GET;
+
+@SuppressWarnings("try") // Scopes are only opened to be closed.
+public final class DeadlineTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  private Service service;
+
+  interface Service {
+    @GET("/") String getString();
+
+    @Timeout(value = 5, unit = SECONDS)
+    @GET("/") String getStringWithLongTimeout();
+
+    @Timeout(100)
+    @GET("/") String getStringWithShortTimeout();
+
+    @Cacheable(ttl = 1, unit = MILLISECONDS)
+    @GET("/") String getCachedString();
+
+    @Retry(maxAttempts = 3, statusCodes = 503, initialBackoff = 1, maxBackoff = 1, unit = SECONDS)
+    @GET("/") String getStringWithRetry();
+  }
+
+  @Before public void setUp() {
+    Retrofit retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Test public void callsWithinDeadlineSucceed() {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    try (Deadline.Scope ignored = Deadline.after(5, SECONDS).attach()) {
+      assertThat(service.getString()).isEqualTo("Hi");
+    }
+    assertThat(Deadline.current()).isNull();
+  }
+
+  @Test public void expiredDeadlineFailsWithoutRequest() {
+    try (Deadline.Scope ignored = Deadline.after(0, SECONDS).attach()) {
+      service.getString();
+      fail();
+    } catch (SynchronousTimeoutException expected) {
+      assertThat(expected).hasMessageThat().contains("deadline exceeded");
+    }
+    assertThat(server.getRequestCount()).isEqualTo(0);
+  }
+
+  @Test public void deadlineLimitsCall() {
+    server.enqueue(new MockResponse().setBody("Hi").setHeadersDelay(2, SECONDS));
+
+    long start = System.nanoTime();
+    try (Deadline.Scope ignored = Deadline.after(100, MILLISECONDS).attach()) {
+      service.getString();
+      fail();
+    } catch (SynchronousTimeoutException expected) {
+    }
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_500L);
+  }
+
+  @Test public void deadlineShortensMethodTimeout() {
+    server.enqueue(new MockResponse().setBody("Hi").setHeadersDelay(2, SECONDS));
+
+    long start = System.nanoTime();
+    try (Deadline.Scope ignored = Deadline.after(100, MILLISECONDS).attach()) {
+      service.getStringWithLongTimeout();
+      fail();
+    } catch (SynchronousTimeoutException expected) {
+    }
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_500L);
+  }
+
+  @Test public void shorterMethodTimeoutStillApplies() {
+    server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+    long start = System.nanoTime();
+    try (Deadline.Scope ignored = Deadline.after(10, SECONDS).attach()) {
+      service.getStringWithShortTimeout();
+      fail();
+    } catch (SynchronousTimeoutException expected) {
+    }
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5_000L);
+  }
+
+  @Test public void retryDoesNotBackOffPastDeadline() {
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    try (Deadline.Scope ignored = Deadline.after(500, MILLISECONDS).attach()) {
+      service.getStringWithRetry();
+      fail();
+    } catch (HttpException e) {
+      assertThat(e.code()).isEqualTo(503);
+    }
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void expiredDeadlineFailsRevalidationWithoutRequest() throws Exception {
+    server.enqueue(new MockResponse().setHeader("ETag", "\"v1\"").setBody("Hi"));
+
+    assertThat(service.getCachedString()).isEqualTo("Hi");
+    Thread.sleep(5); // Let the entry expire
+    try (Deadline.Scope ignored = Deadline.after(0, SECONDS).attach()) {
+      service.getCachedString();
+      fail();
+    } catch (SynchronousTimeoutException expected) {
+      assertThat(expected).hasMessageThat().contains("deadline exceeded");
+    }
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void deadlineLimitsRevalidation() throws Exception {
+    server.enqueue(new MockResponse().setHeader("ETag", "\"v1\"").setBody("Hi"));
+    server.enqueue(new MockResponse().setResponseCode(304).setHeadersDelay(2, SECONDS));
+
+    assertThat(service.getCachedString()).isEqualTo("Hi");
+    Thread.sleep(5); // Let the entry expire
+    long start = System.nanoTime();
+    try (Deadline.Scope ignored = Deadline.after(100, MILLISECONDS).attach()) {
+      service.getCachedString();
+      fail();
+    } catch (SynchronousTimeoutException expected) {
+    }
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_500L);
+  }
+
+  @Test public void nestedDeadlineDoesNotExtendOuterOne() {
+    Deadline outer = Deadline.after(1, SECONDS);
+    try (Deadline.Scope ignored = outer.attach()) {
+      try (Deadline.Scope nested = Deadline.after(1, TimeUnit.HOURS).attach()) {
+        assertThat(Deadline.current()).isSameInstanceAs(outer);
+      }
+      Deadline inner = Deadline.after(10, MILLISECONDS);
+      try (Deadline.Scope nested = inner.attach()) {
+        assertThat(Deadline.current()).isSameInstanceAs(inner);
+      }
+      assertThat(Deadline.current()).isSameInstanceAs(outer);
+    }
+    assertThat(Deadline.current()).isNull();
+  }
+
+  @Test public void wrappedTasksRunWithDeadline() throws Exception {
+    Deadline deadline = Deadline.after(1, SECONDS);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assertThat(executor.submit(Deadline.wrap(deadline, Deadline::current)).get())
+        .isSameInstanceAs(deadline);
+      assertThat(executor.submit(Deadline::current).get()).isNull();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test public void negativeDurationThrows() {
+    try {
+      Deadline.after(-1, SECONDS);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessageThat().isEqualTo("duration < 0: -1");
+    }
+  }
+}
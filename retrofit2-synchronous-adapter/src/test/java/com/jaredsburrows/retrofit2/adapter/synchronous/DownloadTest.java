@@ -0,0 +1,186 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+import okio.BufferedSource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import retrofit2.HttpException;
+import retrofit2.Retrofit;
+import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.GET;
+import retrofit2.http.Streaming;
+import retrofit2.http.Tag;
+
+public final class DownloadTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+  private Retrofit retrofit;
+  private Service service;
+
+  interface Service {
+    @Streaming @GET("/") InputStream inputStream();
+
+    @Streaming @GET("/") BufferedSource source();
+
+    @Streaming @GET("/") ReadableByteChannel channel();
+
+    @SaveTo @Streaming @GET("/") Path saveTo(@Tag Path destination);
+
+    @SaveTo @Streaming @GET("/") Path saveToWithoutTag();
+  }
+
+  interface NotStreamingService {
+    @GET("/") InputStream inputStream();
+  }
+
+  interface InvalidSaveToService {
+    @SaveTo @Streaming @GET("/") String saveTo(@Tag Path destination);
+  }
+
+  @Before public void setUp() {
+    retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Test public void inputStream() throws IOException {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    try (InputStream in = service.inputStream()) {
+      byte[] bytes = new byte[2];
+      assertThat(in.read(bytes)).isEqualTo(2);
+      assertThat(new String(bytes, UTF_8)).isEqualTo("Hi");
+      assertThat(in.read()).isEqualTo(-1);
+    }
+  }
+
+  @Test public void source() throws IOException {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    try (BufferedSource source = service.source()) {
+      assertThat(source.readUtf8()).isEqualTo("Hi");
+    }
+  }
+
+  @Test public void channel() throws IOException {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    try (ReadableByteChannel channel = service.channel()) {
+      ByteBuffer buffer = ByteBuffer.allocate(16);
+      assertThat(channel.read(buffer)).isEqualTo(2);
+      assertThat(new String(buffer.array(), 0, 2, UTF_8)).isEqualTo("Hi");
+    }
+  }
+
+  @Test public void saveToWritesFile() throws IOException {
+    byte[] bytes = new byte[3 * 1024 * 1024 + 17];
+    Arrays.fill(bytes, (byte) 'a');
+    server.enqueue(new MockResponse().setBody(new Buffer().write(bytes)));
+    Path destination = folder.getRoot().toPath().resolve("artifact.bin");
+
+    assertThat(service.saveTo(destination)).isEqualTo(destination);
+
+    assertThat(Files.readAllBytes(destination)).isEqualTo(bytes);
+    assertThat(folder.getRoot().list()).asList().containsExactly("artifact.bin");
+  }
+
+  @Test public void saveToReplacesExistingFile() throws IOException {
+    server.enqueue(new MockResponse().setBody("New"));
+    Path destination = folder.newFile("artifact.txt").toPath();
+    Files.write(destination, "Old content".getBytes(UTF_8));
+
+    service.saveTo(destination);
+
+    assertThat(new String(Files.readAllBytes(destination), UTF_8)).isEqualTo("New");
+  }
+
+  @Test public void saveToLeavesOtherDownloadFilesAlone() throws IOException {
+    server.enqueue(new MockResponse().setBody("New"));
+    Path destination = folder.getRoot().toPath().resolve("artifact.bin");
+    Path other = folder.newFile("artifact.bin.download").toPath();
+    Files.write(other, "Other".getBytes(UTF_8));
+
+    service.saveTo(destination);
+
+    assertThat(new String(Files.readAllBytes(destination), UTF_8)).isEqualTo("New");
+    assertThat(new String(Files.readAllBytes(other), UTF_8)).isEqualTo("Other");
+    assertThat(folder.getRoot().list()).asList()
+      .containsExactly("artifact.bin", "artifact.bin.download");
+  }
+
+  @Test public void failedSaveToLeavesNoFile() {
+    server.enqueue(new MockResponse().setBody(new Buffer().write(new byte[1024 * 1024]))
+      .setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY));
+    Path destination = folder.getRoot().toPath().resolve("artifact.bin");
+
+    try {
+      service.saveTo(destination);
+      fail();
+    } catch (RuntimeException e) {
+      assertThat(e).hasCauseThat().isInstanceOf(IOException.class);
+    }
+    assertThat(folder.getRoot().list()).isEmpty();
+  }
+
+  @Test public void saveToWithoutTagThrowsBeforeRequest() {
+    try {
+      service.saveToWithoutTag();
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessageThat().isEqualTo("@SaveTo requires a @Tag Path parameter");
+    }
+    assertThat(server.getRequestCount()).isEqualTo(0);
+  }
+
+  @Test public void httpErrorThrows() {
+    server.enqueue(new MockResponse().setResponseCode(404));
+
+    try {
+      service.inputStream();
+      fail();
+    } catch (HttpException e) {
+      assertThat(e.code()).isEqualTo(404);
+    }
+  }
+
+  @Test public void inputStreamWithoutStreamingThrows() {
+    NotStreamingService invalid = retrofit.create(NotStreamingService.class);
+    try {
+      invalid.inputStream();
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasCauseThat().hasMessageThat()
+        .isEqualTo("InputStream return types require @Streaming");
+    }
+  }
+
+  @Test public void saveToWithoutPathReturnTypeThrows() {
+    InvalidSaveToService invalid = retrofit.create(InvalidSaveToService.class);
+    try {
+      invalid.saveTo(folder.getRoot().toPath());
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasCauseThat().hasMessageThat()
+        .isEqualTo("@SaveTo methods must return Path");
+    }
+  }
+}
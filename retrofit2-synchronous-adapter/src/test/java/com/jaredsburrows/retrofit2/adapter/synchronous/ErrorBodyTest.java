@@ -0,0 +1,205 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+import retrofit2.http.GET;
+
+public final class ErrorBodyTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  private Retrofit retrofit;
+  private Service service;
+
+  static final class ApiError {
+    String message;
+  }
+
+  static final class User {
+    String name;
+  }
+
+  interface Service {
+    @ErrorBody(ApiError.class)
+    @GET("/") User getUser();
+
+    @ErrorBody(value = ApiError.class, maxBytes = 16)
+    @GET("/") User getUserWithSmallErrors();
+
+    @GET("/") User getUserWithoutErrorBody();
+
+    @Cacheable(ttl = 1, unit = MILLISECONDS)
+    @ErrorBody(value = ApiError.class, maxBytes = 32)
+    @GET("/") User getCachedUser();
+  }
+
+  interface InvalidService {
+    @ErrorBody(ApiError.class)
+    @GET("/") Response<User> getUser();
+  }
+
+  @Before public void setUp() {
+    retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(GsonConverterFactory.create())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Test public void errorBodyIsDecoded() {
+    server.enqueue(new MockResponse().setResponseCode(400).setBody("{\"message\": \"Bad\"}"));
+
+    try {
+      service.getUser();
+      fail();
+    } catch (SynchronousHttpException e) {
+      assertThat(e.code()).isEqualTo(400);
+      ApiError error = e.errorBody(ApiError.class);
+      assertThat(error.message).isEqualTo("Bad");
+      // Decoded once
+      assertThat(e.errorBody(ApiError.class)).isSameInstanceAs(error);
+      assertThat(e.errorBody(Object.class)).isSameInstanceAs(error);
+    }
+  }
+
+  @Test public void errorBodyIsStillReadable() throws IOException {
+    server.enqueue(new MockResponse().setResponseCode(400).setBody("{\"message\": \"Bad\"}"));
+
+    try {
+      service.getUser();
+      fail();
+    } catch (SynchronousHttpException e) {
+      assertThat(e.errorBody(ApiError.class).message).isEqualTo("Bad");
+      assertThat(e.response().errorBody().string()).isEqualTo("{\"message\": \"Bad\"}");
+    }
+  }
+
+  @Test public void largeErrorBodyIsCappedAndNotDecoded() throws IOException {
+    server.enqueue(new MockResponse().setResponseCode(500)
+      .setBody("{\"message\": \"Much longer than sixteen bytes\"}"));
+
+    try {
+      service.getUserWithSmallErrors();
+      fail();
+    } catch (SynchronousHttpException e) {
+      assertThat(e.errorBody(ApiError.class)).isNull();
+      assertThat(e.response().errorBody().string()).isEqualTo("{\"message\": \"Muc");
+    }
+  }
+
+  @Test public void undecodableErrorBodyIsNull() {
+    server.enqueue(new MockResponse().setResponseCode(502).setBody("<html>Bad gateway</html>"));
+
+    try {
+      service.getUser();
+      fail();
+    } catch (SynchronousHttpException e) {
+      assertThat(e.code()).isEqualTo(502);
+      assertThat(e.errorBody(ApiError.class)).isNull();
+    }
+  }
+
+  @Test public void emptyErrorBodyIsNull() {
+    server.enqueue(new MockResponse().setResponseCode(500));
+
+    try {
+      service.getUser();
+      fail();
+    } catch (SynchronousHttpException e) {
+      assertThat(e.errorBody(ApiError.class)).isNull();
+    }
+  }
+
+  @Test public void errorBodyOfOtherTypeThrows() {
+    server.enqueue(new MockResponse().setResponseCode(400).setBody("{\"message\": \"Bad\"}"));
+
+    try {
+      service.getUser();
+      fail();
+    } catch (SynchronousHttpException e) {
+      try {
+        e.errorBody(User.class);
+        fail();
+      } catch (ClassCastException expected) {
+      }
+    }
+  }
+
+  @Test public void methodsWithoutErrorBodyHaveNoErrorBody() throws IOException {
+    server.enqueue(new MockResponse().setResponseCode(400).setBody("{\"message\": \"Bad\"}"));
+
+    try {
+      service.getUserWithoutErrorBody();
+      fail();
+    } catch (SynchronousHttpException e) {
+      assertThat(e.errorBody(ApiError.class)).isNull();
+      assertThat(e.response().errorBody().string()).isEqualTo("{\"message\": \"Bad\"}");
+    }
+  }
+
+  @Test public void cachedMethodDecodesErrorBody() {
+    server.enqueue(new MockResponse().setResponseCode(400).setBody("{\"message\": \"Bad\"}"));
+
+    try {
+      service.getCachedUser();
+      fail();
+    } catch (SynchronousHttpException e) {
+      assertThat(e.errorBody(ApiError.class).message).isEqualTo("Bad");
+    }
+  }
+
+  @Test public void cachedMethodDecodesErrorBodyOfRevalidation() throws Exception {
+    server.enqueue(new MockResponse().setHeader("ETag", "\"v1\"").setBody("{\"name\": \"Jake\"}"));
+    server.enqueue(new MockResponse().setResponseCode(503).setBody("{\"message\": \"Down\"}"));
+
+    assertThat(service.getCachedUser().name).isEqualTo("Jake");
+    Thread.sleep(5); // Let the entry expire
+    try {
+      service.getCachedUser();
+      fail();
+    } catch (SynchronousHttpException e) {
+      assertThat(e.code()).isEqualTo(503);
+      assertThat(e.errorBody(ApiError.class).message).isEqualTo("Down");
+    }
+    assertThat(server.takeRequest().getHeader("If-None-Match")).isNull();
+    assertThat(server.takeRequest().getHeader("If-None-Match")).isEqualTo("\"v1\"");
+  }
+
+  @Test public void cachedMethodCapsErrorBodyOfRevalidation() throws Exception {
+    server.enqueue(new MockResponse().setHeader("ETag", "\"v1\"").setBody("{\"name\": \"Jake\"}"));
+    server.enqueue(new MockResponse().setResponseCode(502)
+      .setBody("{\"message\": \"Much longer than thirty-two bytes\"}"));
+
+    service.getCachedUser();
+    Thread.sleep(5); // Let the entry expire
+    try {
+      service.getCachedUser();
+      fail();
+    } catch (SynchronousHttpException e) {
+      assertThat(e.errorBody(ApiError.class)).isNull();
+      assertThat(e.response().errorBody().string())
+        .isEqualTo("{\"message\": \"Much longer than th");
+    }
+  }
+
+  @Test public void errorBodyOnResponseThrows() {
+    InvalidService invalid = retrofit.create(InvalidService.class);
+    try {
+      invalid.getUser();
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasCauseThat().hasMessageThat()
+        .isEqualTo("@ErrorBody is not supported on Response<T> return types");
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Call;
+import retrofit2.Retrofit;
+import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.GET;
+
+public final class ExceptionsTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  private Service service;
+  private Service stacklessService;
+
+  interface Service {
+    @GET("/") String getString();
+
+    @RateLimit(permitsPerSecond = 0.1, failFast = true)
+    @GET("/") String getStringWithRateLimit();
+
+    @GET("/") Call<String> call();
+  }
+
+  @Before public void setUp() {
+    service = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build()
+      .create(Service.class);
+    stacklessService = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(new SynchronousCallAdapterFactory.Builder()
+        .stackTraces(false)
+        .build())
+      .build()
+      .create(Service.class);
+  }
+
+  @Test public void networkFailureThrowsNetworkException() {
+    server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+
+    try {
+      service.getString();
+      fail();
+    } catch (SynchronousNetworkException e) {
+      assertThat(e).hasCauseThat().isInstanceOf(IOException.class);
+      assertThat(e.getStackTrace()).isNotEmpty();
+    }
+  }
+
+  @Test public void stacklessNetworkException() {
+    server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+
+    try {
+      stacklessService.getString();
+      fail();
+    } catch (SynchronousNetworkException e) {
+      assertThat(e).hasCauseThat().isInstanceOf(IOException.class);
+      assertThat(e.getStackTrace()).isEmpty();
+    }
+  }
+
+  @Test public void httpErrorThrowsHttpException() {
+    server.enqueue(new MockResponse().setResponseCode(404));
+
+    try {
+      service.getString();
+      fail();
+    } catch (SynchronousHttpException e) {
+      assertThat(e.code()).isEqualTo(404);
+      assertThat(e).hasMessageThat().isEqualTo("HTTP 404 Client Error");
+      assertThat(e.getStackTrace()).isNotEmpty();
+    }
+  }
+
+  @Test public void stacklessHttpException() {
+    server.enqueue(new MockResponse().setResponseCode(404));
+
+    try {
+      stacklessService.getString();
+      fail();
+    } catch (SynchronousHttpException e) {
+      assertThat(e.code()).isEqualTo(404);
+      assertThat(e.getStackTrace()).isEmpty();
+    }
+  }
+
+  @Test public void stacklessRejection() {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    assertThat(stacklessService.getStringWithRateLimit()).isEqualTo("Hi");
+    try {
+      stacklessService.getStringWithRateLimit();
+      fail();
+    } catch (SynchronousCallException e) {
+      assertThat(e).isInstanceOf(RateLimitException.class);
+      assertThat(e.getStackTrace()).isEmpty();
+    }
+  }
+
+  @Test public void canceledCallIsCanceled() {
+    Call<String> call = service.call();
+    call.cancel();
+
+    assertThat(Exceptions.DEFAULT.failure(call, new IOException("Canceled")))
+      .isInstanceOf(SynchronousCanceledException.class);
+  }
+
+  @Test public void interruptionIsCanceledNotTimeout() {
+    Thread.currentThread().interrupt();
+    try {
+      assertThat(Exceptions.DEFAULT.failure(null, new InterruptedIOException()))
+        .isInstanceOf(SynchronousCanceledException.class);
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  @Test public void interruptedIOExceptionIsTimeout() {
+    assertThat(Exceptions.DEFAULT.failure(null, new InterruptedIOException("timeout")))
+      .isInstanceOf(SynchronousTimeoutException.class);
+  }
+}
@@ -0,0 +1,128 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.HttpException;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.Body;
+import retrofit2.http.GET;
+import retrofit2.http.POST;
+
+public final class HedgeTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  private Retrofit retrofit;
+  private Service service;
+
+  interface Service {
+    @Hedge(delay = 50) @GET("/") String getString();
+
+    @Hedge(delay = 50) @GET("/") Response<String> getResponse();
+
+    @Hedge(delay = 1, unit = TimeUnit.SECONDS) @GET("/") String getStringWithLongDelay();
+
+    @Hedge(delay = 50, budget = 0.0) @GET("/") String getStringWithoutBudget();
+
+    @Hedge(delay = 50)
+    @ConcurrencyLimit(initialLimit = 1, maxLimit = 1)
+    @GET("/") String getStringWithLimit();
+  }
+
+  interface PostService {
+    @Hedge @POST("/") String postString(@Body String body);
+  }
+
+  @Before public void setUp() {
+    retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Test public void fastCallIsNotHedged() throws InterruptedException {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    assertThat(service.getStringWithLongDelay()).isEqualTo("Hi");
+    Thread.sleep(1_100);
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void slowCallIsHedged() {
+    server.enqueue(new MockResponse().setBody("Slow").setHeadersDelay(5, TimeUnit.SECONDS));
+    server.enqueue(new MockResponse().setBody("Fast"));
+
+    long start = System.nanoTime();
+    assertThat(service.getString()).isEqualTo("Fast");
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(4_000L);
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test public void failedHedgeReturnsOriginalOutcome() {
+    server.enqueue(new MockResponse().setBody("Slow").setHeadersDelay(200, TimeUnit.MILLISECONDS));
+    server.enqueue(new MockResponse().setResponseCode(503));
+
+    assertThat(service.getString()).isEqualTo("Slow");
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test public void failedOriginalWaitsForHedge() {
+    server.enqueue(new MockResponse().setResponseCode(503)
+      .setHeadersDelay(200, TimeUnit.MILLISECONDS));
+    server.enqueue(new MockResponse().setBody("Hedged"));
+
+    Response<String> response = service.getResponse();
+    assertThat(response.isSuccessful()).isTrue();
+    assertThat(response.body()).isEqualTo("Hedged");
+  }
+
+  @Test public void bothFailReturnsOriginalError() {
+    server.enqueue(new MockResponse().setResponseCode(503)
+      .setHeadersDelay(200, TimeUnit.MILLISECONDS));
+    server.enqueue(new MockResponse().setResponseCode(500));
+
+    try {
+      service.getString();
+      fail();
+    } catch (HttpException e) {
+      assertThat(e.code()).isEqualTo(503);
+    }
+  }
+
+  @Test public void exhaustedBudgetDoesNotHedge() {
+    server.enqueue(new MockResponse().setBody("Slow").setHeadersDelay(200, TimeUnit.MILLISECONDS));
+    server.enqueue(new MockResponse().setBody("Fast"));
+
+    assertThat(service.getStringWithoutBudget()).isEqualTo("Slow");
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void hedgeTakesConcurrencyLimitSlot() {
+    server.enqueue(new MockResponse().setBody("Slow").setHeadersDelay(200, TimeUnit.MILLISECONDS));
+    server.enqueue(new MockResponse().setBody("Fast"));
+
+    // The original call holds the only slot, so the hedge is rejected
+    assertThat(service.getStringWithLimit()).isEqualTo("Slow");
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void nonGetThrows() {
+    PostService service = retrofit.create(PostService.class);
+    try {
+      service.postString("Hi");
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasCauseThat().hasMessageThat().isEqualTo(
+        "@Hedge is only supported on GET and HEAD requests");
+    }
+  }
+}
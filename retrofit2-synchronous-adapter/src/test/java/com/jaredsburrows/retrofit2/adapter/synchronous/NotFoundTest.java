@@ -0,0 +1,147 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Optional;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.GET;
+
+public final class NotFoundTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  private Retrofit retrofit;
+  private Service service;
+
+  interface Service {
+    @NotFoundAsNull
+    @GET("/") String getString();
+
+    @NotFoundAsNull({404, 410})
+    @GET("/") String getStringWithCodes();
+
+    @GET("/") Optional<String> getOptional();
+
+    @NotFoundAsEmpty(410)
+    @GET("/") Optional<String> getOptionalWithCodes();
+
+    @Cacheable(ttl = 60_000)
+    @NotFoundAsNull
+    @GET("/") String getCachedString();
+  }
+
+  interface InvalidService {
+    @NotFoundAsEmpty
+    @GET("/") String notFoundAsEmpty();
+
+    @NotFoundAsNull
+    @GET("/") Optional<String> notFoundAsNullOptional();
+
+    @NotFoundAsNull
+    @GET("/") Response<String> notFoundAsNullResponse();
+
+    @NotFoundAsNull(200)
+    @GET("/") String successCode();
+
+    @SuppressWarnings("rawtypes")
+    @GET("/") Optional rawOptional();
+  }
+
+  @Before public void setUp() {
+    retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Test public void notFoundIsNull() {
+    server.enqueue(new MockResponse().setBody("Hi"));
+    server.enqueue(new MockResponse().setResponseCode(404));
+
+    assertThat(service.getString()).isEqualTo("Hi");
+    assertThat(service.getString()).isNull();
+  }
+
+  @Test public void otherErrorsThrow() {
+    server.enqueue(new MockResponse().setResponseCode(410));
+
+    try {
+      service.getString();
+      fail();
+    } catch (SynchronousHttpException e) {
+      assertThat(e.code()).isEqualTo(410);
+    }
+  }
+
+  @Test public void declaredCodesAreNull() {
+    server.enqueue(new MockResponse().setResponseCode(404));
+    server.enqueue(new MockResponse().setResponseCode(410));
+
+    assertThat(service.getStringWithCodes()).isNull();
+    assertThat(service.getStringWithCodes()).isNull();
+  }
+
+  @Test public void optional() {
+    server.enqueue(new MockResponse().setBody("Hi"));
+    server.enqueue(new MockResponse().setResponseCode(404));
+    server.enqueue(new MockResponse().setResponseCode(204));
+
+    assertThat(service.getOptional()).hasValue("Hi");
+    assertThat(service.getOptional()).isEmpty();
+    assertThat(service.getOptional()).isEmpty();
+  }
+
+  @Test public void optionalWithDeclaredCodes() {
+    server.enqueue(new MockResponse().setResponseCode(410));
+    server.enqueue(new MockResponse().setResponseCode(404));
+
+    assertThat(service.getOptionalWithCodes()).isEmpty();
+    try {
+      service.getOptionalWithCodes();
+      fail();
+    } catch (SynchronousHttpException e) {
+      assertThat(e.code()).isEqualTo(404);
+    }
+  }
+
+  @Test public void notFoundIsNotCached() {
+    server.enqueue(new MockResponse().setResponseCode(404));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    assertThat(service.getCachedString()).isNull();
+    assertThat(service.getCachedString()).isEqualTo("Hi");
+    assertThat(service.getCachedString()).isEqualTo("Hi");
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test public void invalidMethodsThrow() {
+    InvalidService invalid = retrofit.create(InvalidService.class);
+    assertInvalid(invalid::notFoundAsEmpty,
+      "@NotFoundAsEmpty requires an Optional<T> return type");
+    assertInvalid(invalid::notFoundAsNullOptional,
+      "@NotFoundAsNull is not supported on Optional<T> return types, use @NotFoundAsEmpty");
+    assertInvalid(invalid::notFoundAsNullResponse,
+      "@NotFoundAsNull is not supported on Response<T> return types");
+    assertInvalid(invalid::successCode,
+      "@NotFoundAsNull status codes must be between 300 and 599");
+    assertInvalid(invalid::rawOptional,
+      "Optional must be parameterized as Optional<Foo> or Optional<? extends Foo>");
+  }
+
+  private static void assertInvalid(Runnable method, String message) {
+    try {
+      method.run();
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasCauseThat().hasMessageThat().isEqualTo(message);
+    }
+  }
+}
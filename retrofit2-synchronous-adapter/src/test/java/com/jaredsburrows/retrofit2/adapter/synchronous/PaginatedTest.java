@@ -0,0 +1,197 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+import retrofit2.http.GET;
+import retrofit2.http.POST;
+
+public final class PaginatedTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  private Retrofit retrofit;
+  private Service service;
+
+  static final class Item {
+    String name;
+  }
+
+  static final class ItemPage {
+    List<Item> items;
+    String next;
+  }
+
+  interface Service {
+    @Paginated
+    @GET("/items") Iterable<Item> items();
+
+    @Paginated(prefetch = false)
+    @GET("/items") Iterable<Item> itemsWithoutPrefetch();
+
+    @Paginated(page = ItemPage.class, cursor = "next", cursorParameter = "after")
+    @GET("/items?size=2") Iterable<Item> itemsByCursor();
+  }
+
+  interface InvalidService {
+    @Paginated
+    @GET("/items") List<Item> list();
+
+    @Paginated
+    @POST("/items") Iterable<Item> post();
+
+    @Paginated(cursor = "next")
+    @GET("/items") Iterable<Item> cursorWithoutPage();
+
+    @Paginated(page = ItemPage.class, items = "missing")
+    @GET("/items") Iterable<Item> missingItems();
+  }
+
+  @Before public void setUp() {
+    retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(GsonConverterFactory.create())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Test public void followsLinkHeaders() throws InterruptedException {
+    server.enqueue(new MockResponse().setBody("[{\"name\": \"a\"}, {\"name\": \"b\"}]")
+      .setHeader("Link", "</items?page=2>; rel=\"next\", </items?page=3>; rel=\"last\""));
+    server.enqueue(new MockResponse().setBody("[{\"name\": \"c\"}]")
+      .setHeader("Link", "<" + server.url("/items?page=3") + ">; rel=\"next last\""));
+    server.enqueue(new MockResponse().setBody("[]")
+      .setHeader("Link", "</items?page=1>; rel=\"first\""));
+
+    assertThat(names(service.items())).containsExactly("a", "b", "c").inOrder();
+
+    assertThat(server.takeRequest().getPath()).isEqualTo("/items");
+    assertThat(server.takeRequest().getPath()).isEqualTo("/items?page=2");
+    assertThat(server.takeRequest().getPath()).isEqualTo("/items?page=3");
+  }
+
+  @Test public void followsCursor() throws InterruptedException {
+    server.enqueue(new MockResponse()
+      .setBody("{\"items\": [{\"name\": \"a\"}, {\"name\": \"b\"}], \"next\": \"x y\"}"));
+    server.enqueue(new MockResponse().setBody("{\"items\": [{\"name\": \"c\"}]}"));
+
+    assertThat(names(service.itemsByCursor())).containsExactly("a", "b", "c").inOrder();
+
+    assertThat(server.takeRequest().getPath()).isEqualTo("/items?size=2");
+    assertThat(server.takeRequest().getPath()).isEqualTo("/items?size=2&after=x%20y");
+  }
+
+  @Test public void nextPageIsPrefetched() throws InterruptedException {
+    server.enqueue(new MockResponse().setBody("[{\"name\": \"a\"}]")
+      .setHeader("Link", "</items?page=2>; rel=\"next\""));
+    server.enqueue(new MockResponse().setBody("[{\"name\": \"b\"}]"));
+
+    Iterable<Item> items = service.items();
+
+    assertThat(server.takeRequest().getPath()).isEqualTo("/items");
+    assertThat(server.takeRequest(5, TimeUnit.SECONDS).getPath()).isEqualTo("/items?page=2");
+    assertThat(names(items)).containsExactly("a", "b").inOrder();
+  }
+
+  @Test public void nextPageIsFetchedWhenNeededWithoutPrefetch() throws InterruptedException {
+    server.enqueue(new MockResponse().setBody("[{\"name\": \"a\"}]")
+      .setHeader("Link", "</items?page=2>; rel=\"next\""));
+    server.enqueue(new MockResponse().setBody("[{\"name\": \"b\"}]"));
+
+    Iterator<Item> items = service.itemsWithoutPrefetch().iterator();
+    assertThat(items.next().name).isEqualTo("a");
+    assertThat(server.getRequestCount()).isEqualTo(1);
+
+    assertThat(items.next().name).isEqualTo("b");
+    assertThat(items.hasNext()).isFalse();
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test public void errorOnLaterPageThrowsWhileIterating() {
+    server.enqueue(new MockResponse().setBody("[{\"name\": \"a\"}]")
+      .setHeader("Link", "</items?page=2>; rel=\"next\""));
+    server.enqueue(new MockResponse().setResponseCode(503));
+
+    Iterator<Item> items = service.items().iterator();
+    assertThat(items.next().name).isEqualTo("a");
+    try {
+      items.hasNext();
+      fail();
+    } catch (SynchronousHttpException e) {
+      assertThat(e.code()).isEqualTo(503);
+    }
+  }
+
+  @Test public void closeStopsPagination() throws IOException {
+    server.enqueue(new MockResponse().setBody("[{\"name\": \"a\"}]")
+      .setHeader("Link", "</items?page=2>; rel=\"next\""));
+    server.enqueue(new MockResponse().setBody("[{\"name\": \"b\"}]"));
+
+    Iterable<Item> items = service.items();
+    ((Closeable) items).close();
+
+    assertThat(items.iterator().hasNext()).isFalse();
+  }
+
+  @Test public void iterableCanOnlyBeIteratedOnce() {
+    server.enqueue(new MockResponse().setBody("[]"));
+
+    Iterable<Item> items = service.items();
+    assertThat(names(items)).isEmpty();
+    try {
+      items.iterator();
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessageThat().isEqualTo("A paginated Iterable can only be iterated once");
+    }
+  }
+
+  @Test public void nextLink() {
+    assertThat(SynchronousPaginatedCallAdapter.nextLink(Arrays.asList(
+      "<https://example.com/a>; rel=\"prev\"",
+      "<https://example.com/b>; title=\"x\"; REL=next, <https://example.com/c>; rel=last")))
+      .isEqualTo("https://example.com/b");
+    assertThat(SynchronousPaginatedCallAdapter.nextLink(
+      Collections.singletonList("<https://example.com/a>; rel=\"prev\""))).isNull();
+  }
+
+  @Test public void invalidMethodsThrow() {
+    InvalidService invalid = retrofit.create(InvalidService.class);
+    assertInvalid(invalid::list, "@Paginated methods must return Iterable<Foo>");
+    assertInvalid(invalid::post, "@Paginated is only supported on GET requests");
+    assertInvalid(invalid::cursorWithoutPage, "@Paginated cursor requires a page type");
+    assertInvalid(invalid::missingItems, "@Paginated page type "
+      + ItemPage.class.getName() + " has no field missing");
+  }
+
+  private static List<String> names(Iterable<Item> items) {
+    List<String> names = new ArrayList<>();
+    for (Item item : items) {
+      names.add(item.name);
+    }
+    return names;
+  }
+
+  private static void assertInvalid(Runnable method, String message) {
+    try {
+      method.run();
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasCauseThat().hasMessageThat().isEqualTo(message);
+    }
+  }
+}
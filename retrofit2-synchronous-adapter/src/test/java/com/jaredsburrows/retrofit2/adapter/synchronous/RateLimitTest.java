@@ -0,0 +1,133 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Retrofit;
+import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.GET;
+
+public final class RateLimitTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  private Retrofit retrofit;
+  private Service service;
+
+  interface Service {
+    @RateLimit(permitsPerSecond = 0.1, burst = 3)
+    @GET("/") String getStringWithBurst();
+
+    @RateLimit(permitsPerSecond = 10)
+    @GET("/") String getString();
+
+    @RateLimit(permitsPerSecond = 0.1, failFast = true)
+    @GET("/") String getStringFailFast();
+
+    @RateLimit(permitsPerSecond = 0.1)
+    @GET("/") String getStringSlowly();
+
+    @RateLimit(permitsPerSecond = 0.1, failFast = true, scope = RateLimit.Scope.HOST)
+    @GET("/a") String getA();
+
+    @RateLimit(permitsPerSecond = 0.1, failFast = true, scope = RateLimit.Scope.HOST)
+    @GET("/b") String getB();
+  }
+
+  interface InvalidService {
+    @RateLimit(permitsPerSecond = 0)
+    @GET("/") String getString();
+  }
+
+  @Before public void setUp() {
+    retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Test public void burstIsExecutedImmediately() {
+    for (int i = 0; i < 3; i++) {
+      server.enqueue(new MockResponse().setBody("Hi"));
+    }
+
+    long start = System.nanoTime();
+    for (int i = 0; i < 3; i++) {
+      assertThat(service.getStringWithBurst()).isEqualTo("Hi");
+    }
+    assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+  }
+
+  @Test public void callsOverRateWait() {
+    for (int i = 0; i < 4; i++) {
+      server.enqueue(new MockResponse().setBody("Hi"));
+    }
+
+    long start = System.nanoTime();
+    for (int i = 0; i < 4; i++) {
+      assertThat(service.getString()).isEqualTo("Hi");
+    }
+    // The first call uses the burst, the next three are spaced by 100ms
+    assertThat(System.nanoTime() - start).isAtLeast(TimeUnit.MILLISECONDS.toNanos(250));
+  }
+
+  @Test public void callOverRateFailsFast() {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    assertThat(service.getStringFailFast()).isEqualTo("Hi");
+    try {
+      service.getStringFailFast();
+      fail();
+    } catch (RateLimitException e) {
+      assertThat(e).hasMessageThat().isEqualTo("Rate limit exceeded for GET /");
+    }
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test
+  @SuppressWarnings("try") // The scope is only opened to be closed.
+  public void callOverRateFailsAtOnceWhenDeadlineComesFirst() {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    assertThat(service.getStringSlowly()).isEqualTo("Hi");
+    long start = System.nanoTime();
+    try (Deadline.Scope scope = Deadline.after(1, TimeUnit.SECONDS).attach()) {
+      service.getStringSlowly();
+      fail();
+    } catch (SynchronousTimeoutException expected) {
+    }
+    // The next permit is 10 seconds away, past the deadline, so the call does not wait for it
+    assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void hostScopeIsSharedBetweenMethods() {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    assertThat(service.getA()).isEqualTo("Hi");
+    try {
+      service.getB();
+      fail();
+    } catch (RateLimitException e) {
+      assertThat(e).hasMessageThat()
+        .isEqualTo("Rate limit exceeded for " + server.url("/").host());
+    }
+  }
+
+  @Test public void invalidRateThrows() {
+    InvalidService invalid = retrofit.create(InvalidService.class);
+    try {
+      invalid.getString();
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasCauseThat().hasMessageThat()
+        .isEqualTo("@RateLimit permitsPerSecond must be positive");
+    }
+  }
+}
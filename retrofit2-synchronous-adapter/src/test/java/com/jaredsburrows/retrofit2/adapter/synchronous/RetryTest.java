@@ -0,0 +1,168 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.HttpException;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.Body;
+import retrofit2.http.GET;
+import retrofit2.http.POST;
+
+public final class RetryTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  private Retrofit retrofit;
+  private Service service;
+
+  interface Service {
+    @Retry(initialBackoff = 1, maxBackoff = 1) @GET("/") String getString();
+
+    @Retry(initialBackoff = 1, maxBackoff = 1) @GET("/") Response<String> getResponse();
+
+    @Retry(initialBackoff = 1, maxBackoff = 1, retryOnIOException = false)
+    @GET("/") String getStringWithoutIOExceptionRetry();
+
+    @Retry(initialBackoff = 1, maxBackoff = 1, nonIdempotent = true)
+    @POST("/") String postString(@Body String body);
+  }
+
+  interface NonIdempotentService {
+    @Retry @POST("/") String postString(@Body String body);
+  }
+
+  interface InvalidService {
+    @Retry(maxAttempts = 0) @GET("/") String getString();
+  }
+
+  @Before public void setUp() {
+    retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Test public void retriesRetryableStatus() {
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setResponseCode(502));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    assertThat(service.getString()).isEqualTo("Hi");
+    assertThat(server.getRequestCount()).isEqualTo(3);
+  }
+
+  @Test public void stopsAfterMaxAttempts() {
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    try {
+      service.getString();
+      fail();
+    } catch (HttpException e) {
+      assertThat(e.code()).isEqualTo(503);
+    }
+    assertThat(server.getRequestCount()).isEqualTo(3);
+  }
+
+  @Test public void returnsLastResponseAfterMaxAttempts() {
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setResponseCode(503).setBody("Unavailable"));
+
+    Response<String> response = service.getResponse();
+    assertThat(response.code()).isEqualTo(503);
+    assertThat(server.getRequestCount()).isEqualTo(3);
+  }
+
+  @Test public void doesNotRetryOtherStatus() {
+    server.enqueue(new MockResponse().setResponseCode(500));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    try {
+      service.getString();
+      fail();
+    } catch (HttpException e) {
+      assertThat(e.code()).isEqualTo(500);
+    }
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void honorsRetryAfter() {
+    server.enqueue(new MockResponse().setResponseCode(429).addHeader("Retry-After", "0"));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    assertThat(service.getString()).isEqualTo("Hi");
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test public void retryAfterLongerThanMaxBackoffReturnsResponse() {
+    server.enqueue(new MockResponse().setResponseCode(429).addHeader("Retry-After", "120"));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    Response<String> response = service.getResponse();
+    assertThat(response.code()).isEqualTo(429);
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void retriesIOException() {
+    server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    assertThat(service.getString()).isEqualTo("Hi");
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test public void doesNotRetryIOExceptionWhenDisabled() {
+    server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    try {
+      service.getStringWithoutIOExceptionRetry();
+      fail();
+    } catch (RuntimeException e) {
+      assertThat(e).isNotInstanceOf(HttpException.class);
+    }
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void retriesNonIdempotentWhenAllowed() {
+    server.enqueue(new MockResponse().setResponseCode(503));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    assertThat(service.postString("Hello")).isEqualTo("Hi");
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test public void nonIdempotentThrows() {
+    NonIdempotentService service = retrofit.create(NonIdempotentService.class);
+    try {
+      service.postString("Hello");
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasCauseThat().hasMessageThat().isEqualTo(
+        "@Retry on non-idempotent POST requests requires nonIdempotent = true");
+    }
+  }
+
+  @Test public void invalidMaxAttemptsThrows() {
+    InvalidService service = retrofit.create(InvalidService.class);
+    try {
+      service.getString();
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasCauseThat().hasMessageThat().isEqualTo(
+        "@Retry maxAttempts must be at least 1");
+    }
+  }
+}
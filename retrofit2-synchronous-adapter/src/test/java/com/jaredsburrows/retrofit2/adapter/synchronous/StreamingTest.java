@@ -0,0 +1,188 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.gson.JsonSyntaxException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.HttpException;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+import retrofit2.http.GET;
+import retrofit2.http.Streaming;
+
+public final class StreamingTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  private Retrofit retrofit;
+  private Service service;
+
+  static final class Item {
+    String name;
+    List<Integer> values;
+  }
+
+  interface Service {
+    @Streaming @GET("/") Stream<Item> stream();
+
+    @Streaming @GET("/") Iterator<Item> iterator();
+
+    @Streaming @GET("/") Iterable<Item> iterable();
+  }
+
+  interface InvalidService {
+    @GET("/") Stream<Item> stream();
+  }
+
+  @Before public void setUp() {
+    retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(GsonConverterFactory.create())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Test public void streamOfJsonArray() {
+    server.enqueue(new MockResponse().setBody(" [ {\"name\": \"a\", \"values\": [1, 2]},\n"
+      + "{\"name\": \"b, ]}\"}, {\"name\": \"c \\\" ]\"} ] "));
+
+    try (Stream<Item> items = service.stream()) {
+      assertThat(items.map(item -> item.name).collect(Collectors.toList()))
+        .containsExactly("a", "b, ]}", "c \" ]").inOrder();
+    }
+  }
+
+  @Test public void streamOfEmptyArray() {
+    server.enqueue(new MockResponse().setBody("[ ]"));
+
+    try (Stream<Item> items = service.stream()) {
+      assertThat(items.count()).isEqualTo(0);
+    }
+  }
+
+  @Test public void iteratorOfNewlineDelimitedJson() {
+    server.enqueue(new MockResponse().setBody("{\"name\": \"a\", \"values\": [1]}\r\n"
+      + "\n"
+      + "{\"name\": \"b\"}\n"
+      + "{\"name\": \"c\"}"));
+
+    Iterator<Item> items = service.iterator();
+    assertThat(items.next().values).containsExactly(1);
+    assertThat(items.next().name).isEqualTo("b");
+    assertThat(items.next().name).isEqualTo("c");
+    assertThat(items.hasNext()).isFalse();
+  }
+
+  @Test public void iterableCanOnlyBeIteratedOnce() {
+    server.enqueue(new MockResponse().setBody("[{\"name\": \"a\"}, {\"name\": \"b\"}]"));
+
+    Iterable<Item> items = service.iterable();
+    List<String> names = new ArrayList<>();
+    for (Item item : items) {
+      names.add(item.name);
+    }
+    assertThat(names).containsExactly("a", "b").inOrder();
+
+    try {
+      items.iterator();
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessageThat().isEqualTo("A streamed Iterable can only be iterated once");
+    }
+  }
+
+  @Test public void elementsAreDecodedBeforeBodyIsRead() throws IOException {
+    StringBuilder body = new StringBuilder("[");
+    for (int i = 0; i < 1000; i++) {
+      body.append("{\"name\": \"").append(i).append("\"},");
+    }
+    body.append("{\"name\": \"last\"}]");
+    // The whole body would take more than 10 seconds to arrive
+    server.enqueue(new MockResponse().setBody(body.toString())
+      .throttleBody(1024, 1, TimeUnit.SECONDS));
+
+    long start = System.nanoTime();
+    Iterator<Item> items = service.iterator();
+    assertThat(items.next().name).isEqualTo("0");
+    ((Closeable) items).close();
+
+    assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+    assertThat(items.hasNext()).isFalse();
+  }
+
+  @Test public void noContentIsEmpty() {
+    server.enqueue(new MockResponse().setResponseCode(204));
+
+    try (Stream<Item> items = service.stream()) {
+      assertThat(items.count()).isEqualTo(0);
+    }
+  }
+
+  @Test public void httpErrorThrows() {
+    server.enqueue(new MockResponse().setResponseCode(404).setBody("[]"));
+
+    try {
+      service.stream();
+      fail();
+    } catch (HttpException e) {
+      assertThat(e.code()).isEqualTo(404);
+    }
+  }
+
+  @Test public void unterminatedArrayThrows() {
+    server.enqueue(new MockResponse().setBody("[{\"name\": \"a\"}, {\"name\""));
+
+    Iterator<Item> items = service.iterator();
+    assertThat(items.next().name).isEqualTo("a");
+    try {
+      items.next();
+      fail();
+    } catch (RuntimeException e) {
+      assertThat(e).hasCauseThat().hasMessageThat().isEqualTo("Unterminated JSON array");
+    }
+  }
+
+  @Test public void streamMayContainNulls() {
+    server.enqueue(new MockResponse().setBody("[null, {\"name\": \"a\"}]"));
+
+    try (Stream<Item> items = service.stream()) {
+      assertThat(items.map(item -> item == null ? null : item.name).collect(Collectors.toList()))
+        .containsExactly(null, "a").inOrder();
+    }
+  }
+
+  @Test public void converterFailureClosesBody() {
+    server.enqueue(new MockResponse().setBody("[{\"values\": \"a\"}, {\"name\": \"b\"}]"));
+
+    Iterator<Item> items = service.iterator();
+    try {
+      items.next();
+      fail();
+    } catch (JsonSyntaxException expected) {
+    }
+    assertThat(items.hasNext()).isFalse();
+  }
+
+  @Test public void streamWithoutStreamingThrows() {
+    InvalidService invalid = retrofit.create(InvalidService.class);
+    try {
+      invalid.stream();
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasCauseThat().hasMessageThat()
+        .isEqualTo("Stream return types require @Streaming");
+    }
+  }
+}
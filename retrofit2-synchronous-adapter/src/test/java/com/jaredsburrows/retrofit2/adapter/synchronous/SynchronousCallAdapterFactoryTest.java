@@ -7,7 +7,9 @@ import com.google.gson.reflect.TypeToken;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.util.List;
+import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -16,6 +18,7 @@ import retrofit2.CallAdapter;
 import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.GET;
 
 /**
  * This test does not use {@link retrofit2.Call} and uses the {@link SynchronousCallAdapterFactory}
@@ -28,6 +31,17 @@ public final class SynchronousCallAdapterFactoryTest {
   private final CallAdapter.Factory factory = SynchronousCallAdapterFactory.create();
   private Retrofit retrofit;
 
+  interface Service {
+    @GET("/") String getString();
+  }
+
+  @SuppressWarnings("rawtypes") // we want to ensure raw types cannot be used
+  interface RawResponseService {
+    @GET("/") String getString();
+
+    @GET("/") Response getRawResponse();
+  }
+
   @Before public void setUp() {
     retrofit = new Retrofit.Builder()
       .baseUrl(server.url("/"))
@@ -74,4 +88,47 @@ public final class SynchronousCallAdapterFactoryTest {
         "Response must be parameterized as Response<Foo> or Response<? extends Foo>");
     }
   }
+
+  @Test public void warmUpReturnsWorkingService() throws InterruptedException {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    Service service = SynchronousCallAdapterFactory.warmUp(retrofit, Service.class);
+
+    assertThat(service.getString()).isEqualTo("Hi");
+    assertThat(server.getRequestCount()).isEqualTo(1);
+    assertThat(server.takeRequest().getMethod()).isEqualTo("GET");
+  }
+
+  @Test public void warmUpRawResponseTypeThrows() {
+    try {
+      SynchronousCallAdapterFactory.warmUp(retrofit, RawResponseService.class);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessageThat().contains("RawResponseService.getRawResponse");
+      assertThat(e).hasCauseThat().isInstanceOf(IllegalStateException.class);
+      assertThat(e).hasCauseThat().hasMessageThat().isEqualTo(
+        "Response must be parameterized as Response<Foo> or Response<? extends Foo>");
+    }
+  }
+
+  @Test public void warmUpPreconnects() throws InterruptedException {
+    server.enqueue(new MockResponse());
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    Service service = SynchronousCallAdapterFactory.warmUp(retrofit, Service.class, true);
+
+    RecordedRequest preconnect = server.takeRequest();
+    assertThat(preconnect.getMethod()).isEqualTo("HEAD");
+    assertThat(service.getString()).isEqualTo("Hi");
+    RecordedRequest request = server.takeRequest();
+    assertThat(request.getSequenceNumber()).isEqualTo(1); // Reused the preconnected socket
+  }
+
+  @Test public void warmUpIgnoresPreconnectFailure() throws Exception {
+    server.shutdown();
+
+    Service service = SynchronousCallAdapterFactory.warmUp(retrofit, Service.class, true);
+
+    assertThat(service).isNotNull();
+  }
 }
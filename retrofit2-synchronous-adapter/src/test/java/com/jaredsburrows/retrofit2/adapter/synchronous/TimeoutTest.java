@@ -0,0 +1,119 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.GET;
+
+public final class TimeoutTest {
+  @Rule public final MockWebServer server = new MockWebServer();
+  private Retrofit retrofit;
+  private Service service;
+
+  interface Service {
+    @Timeout(100) @GET("/") String getString();
+
+    @Timeout(100) @GET("/") Response<String> getResponse();
+
+    @Timeout(value = 5, unit = TimeUnit.SECONDS) @GET("/") String getStringWithLongTimeout();
+
+    @Retry(initialBackoff = 1, maxBackoff = 1)
+    @Timeout(100) @GET("/") String getStringWithRetry();
+  }
+
+  interface InvalidService {
+    @Timeout(0) @GET("/") String getString();
+  }
+
+  @Before public void setUp() {
+    retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build();
+    service = retrofit.create(Service.class);
+  }
+
+  @Test public void callWithinTimeout() {
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    assertThat(service.getString()).isEqualTo("Hi");
+  }
+
+  @Test public void bodyCallExceedingTimeoutThrows() {
+    server.enqueue(new MockResponse().setBody("Hi").setHeadersDelay(1, TimeUnit.SECONDS));
+
+    try {
+      service.getString();
+      fail();
+    } catch (SynchronousTimeoutException e) {
+      assertThat(e).hasCauseThat().isInstanceOf(InterruptedIOException.class);
+    }
+  }
+
+  @Test public void responseCallExceedingTimeoutThrows() {
+    server.enqueue(new MockResponse().setBody("Hi").setHeadersDelay(1, TimeUnit.SECONDS));
+
+    try {
+      service.getResponse();
+      fail();
+    } catch (SynchronousTimeoutException e) {
+      assertThat(e).hasCauseThat().isInstanceOf(InterruptedIOException.class);
+    }
+  }
+
+  @Test public void timeoutOverridesClientTimeouts() {
+    server.enqueue(new MockResponse().setBody("Hi").setHeadersDelay(500, TimeUnit.MILLISECONDS));
+
+    assertThat(service.getStringWithLongTimeout()).isEqualTo("Hi");
+  }
+
+  @Test public void timeoutAppliesToEachRetry() {
+    server.enqueue(new MockResponse().setBody("Slow").setHeadersDelay(1, TimeUnit.SECONDS));
+    server.enqueue(new MockResponse().setBody("Hi"));
+
+    assertThat(service.getStringWithRetry()).isEqualTo("Hi");
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test public void clientTimeoutThrows() {
+    Retrofit retrofit = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .client(new OkHttpClient.Builder().readTimeout(100, TimeUnit.MILLISECONDS).build())
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build();
+    Service service = retrofit.create(Service.class);
+
+    server.enqueue(new MockResponse().setBody("Hi").setHeadersDelay(1, TimeUnit.SECONDS));
+
+    try {
+      service.getStringWithLongTimeout();
+      fail();
+    } catch (SynchronousTimeoutException e) {
+      assertThat(e).hasCauseThat().isInstanceOf(InterruptedIOException.class);
+    }
+  }
+
+  @Test public void zeroTimeoutThrows() {
+    InvalidService invalid = retrofit.create(InvalidService.class);
+    try {
+      invalid.getString();
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasCauseThat().hasMessageThat().isEqualTo("@Timeout value must be positive");
+    }
+    assertThat(server.getRequestCount()).isEqualTo(0);
+  }
+}
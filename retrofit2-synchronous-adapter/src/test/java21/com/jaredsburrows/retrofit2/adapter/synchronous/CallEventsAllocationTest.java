@@ -0,0 +1,45 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import jdk.jfr.Recording;
+import org.junit.Test;
+import retrofit2.CallAdapter;
+import retrofit2.Response;
+
+/**
+ * Runs the {@link AllocationBudgetTest} budgets against the jar, whose Java 21 classes wrap every
+ * call in a {@link CallEvents} recorder, and adds the budgets of calls made while a recording is
+ * running.
+ */
+public final class CallEventsAllocationTest extends AllocationBudgetTest {
+  private static final String EVENT = "retrofit.SynchronousCall";
+
+  @Test public void recordedBodySuccess() throws Exception {
+    CallAdapter<String, Object> adapter = adapter("body");
+    StubCall<String> call = StubCall.success(Response.success("Hi"));
+
+    // The event, which is never committed under its threshold
+    try (Recording recording = new Recording()) {
+      recording.enable(EVENT);
+      recording.start();
+      assertBudget("recorded body success", 96L, () -> adapter.adapt(call));
+    }
+  }
+
+  @Test public void recordedBodyIOException() throws Exception {
+    CallAdapter<String, Object> adapter = adapter("body");
+    StubCall<String> call = StubCall.failure(new IOException("broken"));
+
+    // The event, the exception and its message
+    try (Recording recording = new Recording()) {
+      recording.enable(EVENT);
+      recording.start();
+      assertBudget("recorded body IOException", 384L, () -> {
+        try {
+          adapter.adapt(call);
+        } catch (SynchronousNetworkException expected) {
+        }
+      });
+    }
+  }
+}
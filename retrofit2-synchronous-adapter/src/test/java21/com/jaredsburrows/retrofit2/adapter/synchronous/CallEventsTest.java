@@ -0,0 +1,183 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Converter;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.Body;
+import retrofit2.http.GET;
+import retrofit2.http.POST;
+import retrofit2.http.Path;
+
+/** Records {@code retrofit.SynchronousCall} events of the Java 21 classes of the jar. */
+public final class CallEventsTest {
+  private static final String EVENT = "retrofit.SynchronousCall";
+
+  @Rule public final MockWebServer server = new MockWebServer();
+  private Service service;
+
+  interface Service {
+    @GET("/users/{id}") String getUser(@Path("id") String id);
+
+    @GET("/users/{id}") Response<String> getUserResponse(@Path("id") String id);
+
+    @POST("/users") String createUser(@Body String user);
+
+    @RateLimit(permitsPerSecond = 0.001, burst = 1, failFast = true)
+    @GET("/users/{id}") String getRateLimitedUser(@Path("id") String id);
+  }
+
+  @Before public void setUp() {
+    service = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create())
+      .build()
+      .create(Service.class);
+  }
+
+  @Test public void successfulCallIsRecorded() throws Exception {
+    server.enqueue(new MockResponse().setBody("Jake"));
+
+    List<RecordedEvent> events = record(Duration.ZERO, () -> service.getUser("1"));
+
+    assertThat(events).hasSize(1);
+    RecordedEvent event = events.get(0);
+    assertThat(event.getString("serviceMethod"))
+      .isEqualTo(Service.class.getName() + ".getUser");
+    assertThat(event.getString("httpMethod")).isEqualTo("GET");
+    assertThat(event.getString("urlTemplate")).isEqualTo("/users/{id}");
+    assertThat(event.getInt("status")).isEqualTo(200);
+    assertThat(event.getLong("responseBytes")).isEqualTo(4L);
+    assertThat(event.getString("outcome")).isEqualTo("success");
+    assertThat(event.getDuration()).isGreaterThan(Duration.ZERO);
+  }
+
+  @Test public void requestBytesAreRecorded() throws Exception {
+    server.enqueue(new MockResponse().setBody("Jake"));
+
+    List<RecordedEvent> events = record(Duration.ZERO, () -> service.createUser("Jake Wharton"));
+
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0).getString("httpMethod")).isEqualTo("POST");
+    assertThat(events.get(0).getLong("requestBytes")).isEqualTo(12L);
+  }
+
+  @Test public void httpErrorIsRecorded() throws Exception {
+    server.enqueue(new MockResponse().setResponseCode(404));
+
+    List<RecordedEvent> events = record(Duration.ZERO, () -> service.getUserResponse("1"));
+
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0).getInt("status")).isEqualTo(404);
+    assertThat(events.get(0).getString("outcome")).isEqualTo("http_error");
+  }
+
+  @Test public void networkErrorIsRecorded() throws Exception {
+    server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+
+    List<RecordedEvent> events = record(Duration.ZERO, () -> {
+      try {
+        service.getUser("1");
+        fail();
+      } catch (SynchronousNetworkException expected) {
+      }
+    });
+
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0).getInt("status")).isEqualTo(0);
+    assertThat(events.get(0).getString("outcome")).isEqualTo("network_error");
+  }
+
+  @Test public void converterFailureIsRecorded() throws Exception {
+    Service service = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .addConverterFactory(new StringConverterFactory() {
+        @Override
+        public Converter<ResponseBody, ?> responseBodyConverter(Type type,
+          Annotation[] annotations, Retrofit retrofit) {
+          return (Converter<ResponseBody, String>) value -> {
+            throw new UnsupportedOperationException("I am broken!");
+          };
+        }
+      })
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create())
+      .build()
+      .create(Service.class);
+    server.enqueue(new MockResponse().setBody("Jake"));
+
+    List<RecordedEvent> events = record(Duration.ZERO, () -> {
+      try {
+        service.getUser("1");
+        fail();
+      } catch (UnsupportedOperationException expected) {
+      }
+    });
+
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0).getString("outcome")).isEqualTo("failure");
+  }
+
+  @Test public void rateLimitRejectionIsRecorded() throws Exception {
+    server.enqueue(new MockResponse().setBody("Jake"));
+
+    List<RecordedEvent> events = record(Duration.ZERO, () -> {
+      service.getRateLimitedUser("1");
+      try {
+        service.getRateLimitedUser("2");
+        fail();
+      } catch (RateLimitException expected) {
+      }
+    });
+
+    assertThat(events).hasSize(2);
+    assertThat(events.get(1).getString("outcome")).isEqualTo("rejected");
+  }
+
+  @Test public void callsUnderThresholdAreNotRecorded() throws Exception {
+    server.enqueue(new MockResponse().setBody("Jake"));
+
+    List<RecordedEvent> events = record(Duration.ofMinutes(1), () -> service.getUser("1"));
+
+    assertThat(events).isEmpty();
+  }
+
+  private static List<RecordedEvent> record(Duration threshold, Runnable calls) throws Exception {
+    java.nio.file.Path file = Files.createTempFile("calls", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(EVENT).withThreshold(threshold);
+      recording.start();
+      calls.run();
+      recording.stop();
+      recording.dump(file);
+    }
+
+    List<RecordedEvent> events = new ArrayList<>();
+    for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+      if (event.getEventType().getName().equals(EVENT)) {
+        events.add(event);
+      }
+    }
+    Files.delete(file);
+    return events;
+  }
+}
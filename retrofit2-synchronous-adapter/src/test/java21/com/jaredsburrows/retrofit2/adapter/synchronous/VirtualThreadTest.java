@@ -0,0 +1,187 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Retrofit;
+import retrofit2.helpers.StringConverterFactory;
+import retrofit2.http.GET;
+import retrofit2.http.Path;
+
+/**
+ * Runs synchronous calls on virtual threads. Every concurrent call holds a client and a server
+ * socket, run with {@code -PvirtualThreadCalls=10000} on hosts allowing enough open files.
+ */
+public final class VirtualThreadTest {
+  private static final int CALLS = Integer.getInteger("virtualThreadCalls", 5_000);
+  private static final long DELAY_MS = 250;
+
+  @Rule public final MockWebServer server = new MockWebServer();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private OkHttpClient client;
+  private Service service;
+
+  interface Service {
+    @GET("/slow/{id}") String getSlow(@Path("id") int id);
+
+    @GET("/hang") String getHanging();
+
+    @Cacheable(ttl = 1) @GET("/fast/{id}") String getCached(@Path("id") int id);
+
+    @Coalesce @GET("/fast/{id}") String getCoalesced(@Path("id") int id);
+
+    @Hedge(delay = 1) @GET("/fast/{id}") String getHedged(@Path("id") int id);
+
+    @Retry(initialBackoff = 1, maxBackoff = 1) @Timeout(5_000) @GET("/fast/{id}")
+    String getRetried(@Path("id") int id);
+  }
+
+  @Before public void setUp() throws Exception {
+    server.setDispatcher(new Dispatcher() {
+      @Override public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+        String path = request.getPath();
+        if (path.startsWith("/hang")) {
+          release.await();
+          return new MockResponse();
+        }
+        if (path.startsWith("/fast")) {
+          return new MockResponse().setBody("Hi");
+        }
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+          Thread.sleep(DELAY_MS);
+        } finally {
+          inFlight.decrementAndGet();
+        }
+        return new MockResponse().setBody("Hi");
+      }
+    });
+    server.start();
+
+    client = new OkHttpClient.Builder()
+      .connectTimeout(30, TimeUnit.SECONDS)
+      .readTimeout(60, TimeUnit.SECONDS)
+      .build();
+    service = new Retrofit.Builder()
+      .baseUrl(server.url("/"))
+      .client(client)
+      .addConverterFactory(new StringConverterFactory())
+      .addCallAdapterFactory(SynchronousCallAdapterFactory.create()) // Add synchronous adapter
+      .build()
+      .create(Service.class);
+  }
+
+  @After public void tearDown() {
+    release.countDown();
+    client.dispatcher().executorService().shutdown();
+    client.connectionPool().evictAll();
+  }
+
+  @Test public void thousandsOfConcurrentCalls() throws Exception {
+    long start = System.nanoTime();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<String>> futures = new ArrayList<>(CALLS);
+      for (int i = 0; i < CALLS; i++) {
+        int id = i;
+        futures.add(executor.submit(() -> service.getSlow(id)));
+      }
+      for (Future<String> future : futures) {
+        assertThat(future.get(2, TimeUnit.MINUTES)).isEqualTo("Hi");
+      }
+    }
+    long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertThat(server.getRequestCount()).isEqualTo(CALLS);
+    // Sequential calls would take CALLS * DELAY_MS. How many overlap on the server is mostly bound
+    // by how fast MockWebServer accepts connections, so only check that they do overlap.
+    assertThat(maxInFlight.get()).isAtLeast(Math.min(CALLS, 100));
+    assertThat(elapsedMs).isLessThan(CALLS * DELAY_MS / 10);
+  }
+
+  @Test public void interruptingVirtualThreadCancelsCall() throws Exception {
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread thread = Thread.ofVirtual().start(() -> {
+      try {
+        service.getHanging();
+      } catch (Throwable t) {
+        failure.set(t);
+      }
+    });
+
+    server.takeRequest(5, TimeUnit.SECONDS);
+    long start = System.nanoTime();
+    thread.interrupt();
+    thread.join(TimeUnit.SECONDS.toMillis(5));
+
+    assertThat(thread.isAlive()).isFalse();
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5_000L);
+    assertThat(failure.get()).isInstanceOf(SynchronousCanceledException.class);
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test public void adaptersDoNotPinCarrierThreads() throws Exception {
+    java.nio.file.Path file = Files.createTempFile("pinned", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+      recording.start();
+
+      try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+          int id = i % 10;
+          futures.add(executor.submit(() -> service.getCached(id)));
+          futures.add(executor.submit(() -> service.getCoalesced(id)));
+          futures.add(executor.submit(() -> service.getHedged(id)));
+          futures.add(executor.submit(() -> service.getRetried(id)));
+        }
+        for (Future<String> future : futures) {
+          assertThat(future.get(1, TimeUnit.MINUTES)).isEqualTo("Hi");
+        }
+      }
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    List<String> pinned = new ArrayList<>();
+    for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+      if (event.getStackTrace() == null) {
+        continue;
+      }
+      for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+        String type = frame.getMethod().getType().getName();
+        if (type.startsWith(VirtualThreadTest.class.getPackage().getName())) {
+          pinned.add(type + "." + frame.getMethod().getName());
+        }
+      }
+    }
+    Files.delete(file);
+    assertThat(pinned).isEmpty();
+  }
+}
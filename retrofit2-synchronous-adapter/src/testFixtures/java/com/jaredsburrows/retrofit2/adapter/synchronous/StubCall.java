@@ -0,0 +1,66 @@
+package com.jaredsburrows.retrofit2.adapter.synchronous;
+
+import java.io.IOException;
+import okhttp3.Request;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * {@link Call} that never touches the network so the benchmarks and the allocation tests only
+ * measure the adapters. Every {@link #execute()} returns the same pre-built {@link Response} or
+ * throws the same pre-built {@link IOException}.
+ */
+final class StubCall<T> implements Call<T> {
+  private static final Request REQUEST = new Request.Builder().url("http://localhost/").build();
+  private final Response<T> response;
+  private final IOException failure;
+
+  private StubCall(Response<T> response, IOException failure) {
+    this.response = response;
+    this.failure = failure;
+  }
+
+  static <T> StubCall<T> success(Response<T> response) {
+    return new StubCall<>(response, null);
+  }
+
+  static <T> StubCall<T> failure(IOException failure) {
+    return new StubCall<>(null, failure);
+  }
+
+  @Override public Response<T> execute() throws IOException {
+    if (failure != null) {
+      throw failure;
+    }
+    return response;
+  }
+
+  @Override public void enqueue(Callback<T> callback) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override public boolean isExecuted() {
+    return false;
+  }
+
+  @Override public void cancel() {
+  }
+
+  @Override public boolean isCanceled() {
+    return false;
+  }
+
+  @Override public Call<T> clone() {
+    return this;
+  }
+
+  @Override public Request request() {
+    return REQUEST;
+  }
+
+  @Override public Timeout timeout() {
+    return Timeout.NONE;
+  }
+}